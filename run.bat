@@ -18,7 +18,7 @@ for /r "src\main\java" %%f in (*.java) do (
 
 rem 编译
 echo Compiling Java sources...
-javac -encoding UTF-8 -d build\classes -cp "%LWJGL_CP%" %SOURCES%
+javac -encoding UTF-8 --add-modules jdk.incubator.vector -d build\classes -cp "%LWJGL_CP%" %SOURCES%
 if errorlevel 1 (
   echo Compilation failed!
   exit /b 1
@@ -42,10 +42,10 @@ if /i "%PROCESSOR_ARCHITECTURE%"=="AMD64" (
 )
 
 rem 设置 LWJGL natives 路径
-set "JAVA_FLAGS="
+set "JAVA_FLAGS=--add-modules jdk.incubator.vector"
 set "NATIVES_PATH=lib\lwjgl\natives\%OS_ID%-%ARCH_ID%"
 if exist "%NATIVES_PATH%" (
-  set "JAVA_FLAGS=-Dorg.lwjgl.librarypath=%NATIVES_PATH%"
+  set "JAVA_FLAGS=%JAVA_FLAGS% -Dorg.lwjgl.librarypath=%NATIVES_PATH%"
 )
 
 rem 运行程序
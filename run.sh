@@ -9,7 +9,7 @@ if [ -d "lib/lwjgl" ]; then
   LWJGL_CP=".:lib/lwjgl/*"
 fi
 SOURCES=$(find src/main/java -type f -name "*.java")
-javac -d build/classes -cp "$LWJGL_CP" $SOURCES
+javac --add-modules jdk.incubator.vector -d build/classes -cp "$LWJGL_CP" $SOURCES
 
 LWJGL_DIR="lib/lwjgl"
 CLASSPATH="build/classes"
@@ -31,9 +31,9 @@ case "$ARCH_RAW" in
   *) ARCH_ID="";;
 esac
 
-JAVA_FLAGS=""
+JAVA_FLAGS="--add-modules jdk.incubator.vector"
 if [ -n "$OS_ID" ] && [ -n "$ARCH_ID" ] && [ -d "$LWJGL_DIR/natives/${OS_ID}-${ARCH_ID}" ]; then
-  JAVA_FLAGS="-Dorg.lwjgl.librarypath=$LWJGL_DIR/natives/${OS_ID}-${ARCH_ID}"
+  JAVA_FLAGS="$JAVA_FLAGS -Dorg.lwjgl.librarypath=$LWJGL_DIR/natives/${OS_ID}-${ARCH_ID}"
 fi
 
 if [[ "$OS" == Darwin* ]]; then
@@ -0,0 +1,84 @@
+package com.gameengine.benchmark;
+
+import com.gameengine.math.FloatKernels;
+import com.gameengine.math.ScalarFloatKernels;
+
+import java.util.Random;
+
+/**
+ * 计算内核基准测试：对比标量与 SIMD 实现的成对避让力累加和边界反弹耗时。
+ * 运行：gradle benchmark（或 java --add-modules jdk.incubator.vector -cp ... com.gameengine.benchmark.KernelBenchmark [点数]）
+ */
+public class KernelBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURE_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        Random random = new Random(42);
+        float[] xs = new float[n];
+        float[] ys = new float[n];
+        float[] vx = new float[n];
+        float[] vy = new float[n];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextFloat() * 200;
+            ys[i] = random.nextFloat() * 200;
+            vx[i] = (random.nextFloat() - 0.5f) * 100;
+            vy[i] = (random.nextFloat() - 0.5f) * 100;
+            ids[i] = i;
+        }
+
+        FloatKernels scalar = new ScalarFloatKernels();
+        FloatKernels simd = FloatKernels.select(true);
+        System.out.println("点数: " + n + ", SIMD 可用: " + FloatKernels.isSimdAvailable() + " (" + simd.name() + ")");
+
+        double scalarPairwise = timePairwise(scalar, xs, ys, ids, n);
+        double simdPairwise = timePairwise(simd, xs, ys, ids, n);
+        report("成对避让力累加 (n*n/2)", scalarPairwise, simdPairwise);
+
+        double scalarBounce = timeBounce(scalar, xs, ys, vx, vy, n);
+        double simdBounce = timeBounce(simd, xs, ys, vx, vy, n);
+        report("边界反弹 (n x 1000)", scalarBounce, simdBounce);
+    }
+
+    private static double timePairwise(FloatKernels kernels, float[] xs, float[] ys, int[] ids, int n) {
+        float[] out = new float[2];
+        float[] reactX = new float[n];
+        float[] reactY = new float[n];
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                kernels.accumulatePairwise(xs[i], ys[i], xs, ys, ids, i, 0, n, 50f, 0.625f, out, reactX, reactY, 0);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) best = Math.min(best, elapsed / 1e6);
+        }
+        // 使用结果，避免被 JIT 消除
+        if (Float.isNaN(out[0])) System.out.println();
+        return best;
+    }
+
+    private static double timeBounce(FloatKernels kernels, float[] xs, float[] ys, float[] vx, float[] vy, int n) {
+        float[] px = xs.clone();
+        float[] py = ys.clone();
+        float[] qx = vx.clone();
+        float[] qy = vy.clone();
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int k = 0; k < 1000; k++) {
+                kernels.bounceInBounds(px, py, qx, qy, 0, n, 20f, 20f, 180f, 180f);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) best = Math.min(best, elapsed / 1e6);
+        }
+        return best;
+    }
+
+    private static void report(String label, double scalarMs, double simdMs) {
+        System.out.printf("%s: 标量 %.3f ms, SIMD %.3f ms, 加速比 %.2fx%n",
+                label, scalarMs, simdMs, scalarMs / simdMs);
+    }
+}
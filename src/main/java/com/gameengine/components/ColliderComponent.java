@@ -0,0 +1,143 @@
+package com.gameengine.components;
+
+import com.gameengine.core.Component;
+import com.gameengine.math.Vector2;
+import com.gameengine.physics.CollisionLayers;
+
+/**
+ * 碰撞体组件，描述形状、相对变换的偏移以及碰撞层/掩码
+ */
+public class ColliderComponent extends Component<ColliderComponent> {
+    private Shape shape;
+    private Vector2 size;
+    private Vector2 offset;
+    private int layer;
+    private int mask;
+    // 上一次碰撞快照时的位置（位置+偏移），供扫掠检测使用
+    private float sweepX;
+    private float sweepY;
+    private boolean hasSweep;
+
+    public enum Shape {
+        CIRCLE,
+        AABB
+    }
+
+    public ColliderComponent() {
+        this(Shape.AABB, new Vector2(20, 20), CollisionLayers.ALL, CollisionLayers.ALL);
+    }
+
+    /**
+     * @param shape 形状，圆形以 size.x 为直径、以 位置+偏移 为圆心；AABB 以 位置+偏移 为左上角
+     */
+    public ColliderComponent(Shape shape, Vector2 size, int layer, int mask) {
+        this.shape = shape;
+        this.size = new Vector2(size);
+        this.offset = new Vector2();
+        this.layer = layer;
+        this.mask = mask;
+    }
+
+    @Override
+    public void initialize() {
+        // 初始化碰撞体组件
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        // 碰撞由 CollisionSystem 统一处理
+    }
+
+    @Override
+    public void render() {
+        // 碰撞体不直接渲染
+    }
+
+    public void setSize(Vector2 size) {
+        this.size = new Vector2(size);
+    }
+
+    public void setOffset(Vector2 offset) {
+        this.offset = new Vector2(offset);
+    }
+
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    public void setMask(int mask) {
+        this.mask = mask;
+    }
+
+    // Getters
+    public Shape getShape() {
+        return shape;
+    }
+
+    public Vector2 getSize() {
+        return new Vector2(size);
+    }
+
+    public Vector2 getOffset() {
+        return new Vector2(offset);
+    }
+
+    public float getRadius() {
+        return size.x / 2;
+    }
+
+    /**
+     * 以下四个读取方法不复制 Vector2，供每帧批量读取使用
+     */
+    public float getSizeX() {
+        return size.x;
+    }
+
+    public float getSizeY() {
+        return size.y;
+    }
+
+    public float getOffsetX() {
+        return offset.x;
+    }
+
+    public float getOffsetY() {
+        return offset.y;
+    }
+
+    /**
+     * 记录本次碰撞快照的位置，下一次快照以它作为扫掠起点
+     */
+    public void recordSweep(float x, float y) {
+        sweepX = x;
+        sweepY = y;
+        hasSweep = true;
+    }
+
+    /**
+     * 丢弃扫掠起点，瞬移（如重生）后调用，避免把瞬移当作连续运动
+     */
+    public void resetSweep() {
+        hasSweep = false;
+    }
+
+    public boolean hasSweep() {
+        return hasSweep;
+    }
+
+    public float getSweepX() {
+        return sweepX;
+    }
+
+    public float getSweepY() {
+        return sweepY;
+    }
+
+    public int getLayer() {
+        return layer;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+}
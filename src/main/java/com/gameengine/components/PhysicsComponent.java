@@ -5,7 +5,9 @@ import com.gameengine.core.GameObject;
 import com.gameengine.math.Vector2;
 
 /**
- * 物理组件，处理物理运动
+ * 物理组件，只保存速度、加速度、摩擦等运动数据，自身的 update 不做任何事。
+ * 积分由 PhysicsSystem 对场景中所有带 Transform 的物理物体统一批处理，
+ * 不运行 PhysicsSystem 的场景中物体不会移动。
  */
 public class PhysicsComponent extends Component<PhysicsComponent> {
     private Vector2 velocity;
@@ -36,28 +38,7 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     
     @Override
     public void update(float deltaTime) {
-        if (!enabled) return;
-        
-        TransformComponent transform = owner.getComponent(TransformComponent.class);
-        if (transform == null) return;
-        
-        // 应用重力
-        if (useGravity) {
-            acceleration = acceleration.add(gravity);
-        }
-        
-        // 更新速度
-        velocity = velocity.add(acceleration.multiply(deltaTime));
-        
-        // 应用摩擦力
-        velocity = velocity.multiply(friction);
-        
-        // 更新位置
-        Vector2 deltaPosition = velocity.multiply(deltaTime);
-        transform.translate(deltaPosition);
-        
-        // 重置加速度
-        acceleration = new Vector2();
+        // 积分由 PhysicsSystem 对所有物体统一批处理
     }
     
     @Override
@@ -91,10 +72,19 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     }
     
     /**
-     * 设置速度
+     * 设置速度（原地修改，不分配新对象）
      */
     public void setVelocity(float x, float y) {
-        this.velocity = new Vector2(x, y);
+        this.velocity.x = x;
+        this.velocity.y = y;
+    }
+    
+    /**
+     * 清空本帧累积的加速度
+     */
+    public void clearAcceleration() {
+        this.acceleration.x = 0;
+        this.acceleration.y = 0;
     }
     
     /**
@@ -156,4 +146,29 @@ public class PhysicsComponent extends Component<PhysicsComponent> {
     public Vector2 getGravity() {
         return new Vector2(gravity);
     }
+    
+    // 不分配对象的分量访问，供 PhysicsSystem 打包数据使用
+    public float getVelocityX() {
+        return velocity.x;
+    }
+    
+    public float getVelocityY() {
+        return velocity.y;
+    }
+    
+    public float getAccelerationX() {
+        return acceleration.x;
+    }
+    
+    public float getAccelerationY() {
+        return acceleration.y;
+    }
+    
+    public float getGravityX() {
+        return gravity.x;
+    }
+    
+    public float getGravityY() {
+        return gravity.y;
+    }
 }
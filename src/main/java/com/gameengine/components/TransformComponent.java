@@ -95,6 +95,22 @@ public class TransformComponent extends Component<TransformComponent> {
         this.position = new Vector2(position);
     }
     
+    /**
+     * 原地设置位置，不分配新对象（供批处理系统使用）
+     */
+    public void setPosition(float x, float y) {
+        this.position.x = x;
+        this.position.y = y;
+    }
+    
+    public float getX() {
+        return position.x;
+    }
+    
+    public float getY() {
+        return position.y;
+    }
+    
     public Vector2 getScale() {
         return new Vector2(scale);
     }
@@ -3,5 +3,23 @@ package com.gameengine.config;
 public final class GameConfig {
     public static final int WIDTH = 800;
     public static final int HEIGHT = 600;
-    
+
+    private static volatile PerformanceProfile profile = PerformanceProfile.defaults();
+
+    private GameConfig() {}
+
+    /**
+     * 获取当前性能配置
+     */
+    public static PerformanceProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * 设置性能配置（应在创建引擎之前调用）
+     */
+    public static void setProfile(PerformanceProfile newProfile) {
+        if (newProfile == null) throw new IllegalArgumentException("profile is null");
+        profile = newProfile;
+    }
 }
@@ -0,0 +1,417 @@
+package com.gameengine.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * 性能配置，启动时从 properties 文件加载，可按部署调整而无需重新编译。
+ * 文件路径默认为工作目录下的 performance.properties，可通过 -Dgame.profile=路径 覆盖；
+ * 文件不存在时使用默认值，取值非法时抛出 IllegalArgumentException。
+ */
+public final class PerformanceProfile {
+    public static final String DEFAULT_PATH = "performance.properties";
+    public static final String PATH_PROPERTY = "game.profile";
+
+    private final int physicsThreads;
+    private final int physicsParallelThreshold;
+    private final float physicsSubstep;
+    private final float physicsMaxTravel;
+    private final boolean sweptCollision;
+    private final int parallelThreshold;
+    private final int avoidanceBatchSize;
+    private final boolean avoidanceAutoTune;
+    private final float avoidanceRadius;
+    private final String avoidanceQuality;
+    private final int avoidanceMaxNeighbors;
+    private final float avoidanceBudgetMs;
+    private final boolean avoidanceAutoQuality;
+    private final float tickRate;
+    private final float statsIntervalSec;
+    private final String renderBackend;
+    private final int softwareThreads;
+    private final boolean dirtyRects;
+    private final boolean drawBatching;
+    private final int spriteCachePixels;
+    private final float fullRepaintRatio;
+    private final float keyframeIntervalSec;
+    private final int recordingSampleFps;
+    private final int recordingQueueCapacity;
+    private final boolean simdEnabled;
+    private final boolean deterministic;
+    private final float homingAcceleration;
+    private final float flowFieldCellSize;
+    private final int particleCapacity;
+    private final int particleParallelThreshold;
+    private final long seed;
+
+    private PerformanceProfile(Properties props) {
+        int defaultThreads = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        this.physicsThreads = readInt(props, "physics.threads", defaultThreads, 1, 256);
+        this.physicsParallelThreshold = readInt(props, "physics.parallelThreshold", 2048, 1, Integer.MAX_VALUE);
+        this.physicsSubstep = readFloat(props, "physics.substep", 1f / 120f, 0f, 1f);
+        this.physicsMaxTravel = readFloat(props, "physics.maxTravel", 8f, 0.1f, 10000f);
+        this.sweptCollision = readBoolean(props, "collision.swept", true);
+        this.parallelThreshold = readInt(props, "avoidance.parallelThreshold", 10, 1, Integer.MAX_VALUE);
+        this.avoidanceBatchSize = readInt(props, "avoidance.batchSize", 0, 0, Integer.MAX_VALUE);
+        this.avoidanceAutoTune = readBoolean(props, "avoidance.autoTune", true);
+        this.avoidanceRadius = readFloat(props, "avoidance.radius", 50f, 1f, 10000f);
+        this.avoidanceQuality = readChoice(props, "avoidance.quality", "full", "full", "capped", "coarse");
+        this.avoidanceMaxNeighbors = readInt(props, "avoidance.maxNeighbors", 16, 1, 4096);
+        this.avoidanceBudgetMs = readFloat(props, "avoidance.budgetMs", 4f, 0.1f, 1000f);
+        this.avoidanceAutoQuality = readBoolean(props, "avoidance.autoQuality", true);
+        this.tickRate = readFloat(props, "engine.tickRate", 60f, 1f, 1000f);
+        this.statsIntervalSec = readFloat(props, "engine.statsIntervalSec", 5f, 0f, 3600f);
+        this.renderBackend = readChoice(props, "render.backend", "active", "active", "passive", "software");
+        this.softwareThreads = readInt(props, "render.softwareThreads", Runtime.getRuntime().availableProcessors(), 1, 256);
+        this.dirtyRects = readBoolean(props, "render.dirtyRects", true);
+        this.drawBatching = readBoolean(props, "render.batching", true);
+        this.spriteCachePixels = readInt(props, "render.spriteCachePixels", 1 << 20, 0, 1 << 26);
+        this.fullRepaintRatio = readFloat(props, "render.fullRepaintRatio", 0.5f, 0f, 1f);
+        this.keyframeIntervalSec = readFloat(props, "recording.keyframeIntervalSec", 0.5f, 0.01f, 60f);
+        this.recordingSampleFps = readInt(props, "recording.sampleFps", 30, 1, 1000);
+        this.recordingQueueCapacity = readInt(props, "recording.queueCapacity", 2048, 16, 1 << 20);
+        this.simdEnabled = readBoolean(props, "math.simd", true);
+        this.homingAcceleration = readFloat(props, "enemy.homingAcceleration", 0f, 0f, 100000f);
+        this.flowFieldCellSize = readFloat(props, "flowField.cellSize", 25f, 4f, 1000f);
+        this.particleCapacity = readInt(props, "particles.capacity", 32768, 16, 1 << 22);
+        this.particleParallelThreshold = readInt(props, "particles.parallelThreshold", 16384, 1, Integer.MAX_VALUE);
+        this.deterministic = readBoolean(props, "sim.deterministic", false);
+        this.seed = readLong(props, "sim.seed", 0L);
+    }
+
+    /**
+     * 全部使用默认值的配置
+     */
+    public static PerformanceProfile defaults() {
+        return new PerformanceProfile(new Properties());
+    }
+
+    /**
+     * 从 properties 对象构建配置
+     */
+    public static PerformanceProfile fromProperties(Properties props) {
+        return new PerformanceProfile(props);
+    }
+
+    /**
+     * 从指定文件加载配置，文件不存在时返回默认配置
+     */
+    public static PerformanceProfile load(Path path) throws IOException {
+        Properties props = new Properties();
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                props.load(reader);
+            }
+        }
+        return new PerformanceProfile(props);
+    }
+
+    /**
+     * 按系统属性或默认路径加载配置
+     */
+    public static PerformanceProfile loadDefault() throws IOException {
+        return load(Paths.get(System.getProperty(PATH_PROPERTY, DEFAULT_PATH)));
+    }
+
+    private static int readInt(Properties props, String key, int def, int min, int max) {
+        String raw = props.getProperty(key);
+        if (raw == null || raw.trim().isEmpty()) return def;
+        int value;
+        try {
+            value = Integer.parseInt(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("配置项 " + key + " 不是整数: " + raw);
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("配置项 " + key + " 超出范围 [" + min + ", " + max + "]: " + value);
+        }
+        return value;
+    }
+
+    private static long readLong(Properties props, String key, long def) {
+        String raw = props.getProperty(key);
+        if (raw == null || raw.trim().isEmpty()) return def;
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("配置项 " + key + " 不是整数: " + raw);
+        }
+    }
+
+    private static float readFloat(Properties props, String key, float def, float min, float max) {
+        String raw = props.getProperty(key);
+        if (raw == null || raw.trim().isEmpty()) return def;
+        float value;
+        try {
+            value = Float.parseFloat(raw.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("配置项 " + key + " 不是数字: " + raw);
+        }
+        if (Float.isNaN(value) || value < min || value > max) {
+            throw new IllegalArgumentException("配置项 " + key + " 超出范围 [" + min + ", " + max + "]: " + value);
+        }
+        return value;
+    }
+
+    private static String readChoice(Properties props, String key, String def, String... allowed) {
+        String raw = props.getProperty(key);
+        if (raw == null || raw.trim().isEmpty()) return def;
+        String value = raw.trim().toLowerCase();
+        for (String option : allowed) {
+            if (option.equals(value)) return option;
+        }
+        throw new IllegalArgumentException("配置项 " + key + " 取值无效: " + raw + "，可选 " + String.join("/", allowed));
+    }
+
+    private static boolean readBoolean(Properties props, String key, boolean def) {
+        String raw = props.getProperty(key);
+        if (raw == null || raw.trim().isEmpty()) return def;
+        String value = raw.trim();
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException("配置项 " + key + " 不是布尔值: " + raw);
+    }
+
+    // Getters
+    public int getPhysicsThreads() {
+        return physicsThreads;
+    }
+
+    /**
+     * 物理物体数达到该值时并行积分
+     */
+    public int getPhysicsParallelThreshold() {
+        return physicsParallelThreshold;
+    }
+
+    /**
+     * 快速物体的物理子步长（秒），0 表示关闭子步
+     */
+    public float getPhysicsSubstep() {
+        return physicsSubstep;
+    }
+
+    /**
+     * 单帧位移超过该距离（像素）的物体才按子步积分
+     */
+    public float getPhysicsMaxTravel() {
+        return physicsMaxTravel;
+    }
+
+    /**
+     * 是否对玩家做扫掠碰撞检测
+     */
+    public boolean isSweptCollision() {
+        return sweptCollision;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * 避让并行批大小，0 表示按线程数自动划分
+     */
+    public int getAvoidanceBatchSize() {
+        return avoidanceBatchSize;
+    }
+
+    /**
+     * 是否按实测耗时自动选择避让的串行/并行方案与切块大小（开启时忽略并行阈值与批大小）
+     */
+    public boolean isAvoidanceAutoTune() {
+        return avoidanceAutoTune;
+    }
+
+    public float getAvoidanceRadius() {
+        return avoidanceRadius;
+    }
+
+    /**
+     * 避让初始质量等级：full / capped / coarse
+     */
+    public String getAvoidanceQuality() {
+        return avoidanceQuality;
+    }
+
+    /**
+     * 有界避让时每个敌人最多参考的邻居数
+     */
+    public int getAvoidanceMaxNeighbors() {
+        return avoidanceMaxNeighbors;
+    }
+
+    /**
+     * 避让每帧耗时预算（毫秒），自动调节质量时使用
+     */
+    public float getAvoidanceBudgetMs() {
+        return avoidanceBudgetMs;
+    }
+
+    /**
+     * 是否在超出预算时自动降低避让质量（确定性模式下不生效）
+     */
+    public boolean isAvoidanceAutoQuality() {
+        return avoidanceAutoQuality;
+    }
+
+    public float getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * 运行统计打印到控制台的间隔（秒），0 表示不打印
+     */
+    public float getStatsIntervalSec() {
+        return statsIntervalSec;
+    }
+
+    public float getKeyframeIntervalSec() {
+        return keyframeIntervalSec;
+    }
+
+    public int getRecordingSampleFps() {
+        return recordingSampleFps;
+    }
+
+    public int getRecordingQueueCapacity() {
+        return recordingQueueCapacity;
+    }
+
+    /**
+     * 渲染后端：active 为 Canvas + BufferStrategy 主动渲染，passive 为 Swing repaint，software 为多线程软件光栅化
+     */
+    public String getRenderBackend() {
+        return renderBackend;
+    }
+
+    /**
+     * software 渲染后端的光栅化线程数
+     */
+    public int getSoftwareThreads() {
+        return softwareThreads;
+    }
+
+    /**
+     * 是否只重绘与上一帧相比发生变化的屏幕区域
+     */
+    public boolean isDirtyRects() {
+        return dirtyRects;
+    }
+
+    /**
+     * 是否按 (图元类型, 颜色) 分批绘制，减少颜色切换
+     */
+    public boolean isDrawBatching() {
+        return drawBatching;
+    }
+
+    /**
+     * 圆形精灵缓存的总像素预算，0 表示关闭
+     */
+    public int getSpriteCachePixels() {
+        return spriteCachePixels;
+    }
+
+    /**
+     * 脏面积占屏幕的比例超过该值时整屏重绘
+     */
+    public float getFullRepaintRatio() {
+        return fullRepaintRatio;
+    }
+
+    /**
+     * 是否优先使用 SIMD 内核（需要 jdk.incubator.vector 模块）
+     */
+    public boolean isSimdEnabled() {
+        return simdEnabled;
+    }
+
+    /**
+     * 敌人沿流场追踪玩家的加速度（像素/秒²），0 表示不追踪
+     */
+    public float getHomingAcceleration() {
+        return homingAcceleration;
+    }
+
+    /**
+     * 流场格子边长（像素）
+     */
+    public float getFlowFieldCellSize() {
+        return flowFieldCellSize;
+    }
+
+    /**
+     * 粒子池容量，满时新粒子轮转覆盖旧粒子
+     */
+    public int getParticleCapacity() {
+        return particleCapacity;
+    }
+
+    /**
+     * 存活粒子数达到该值时并行积分
+     */
+    public int getParticleParallelThreshold() {
+        return particleParallelThreshold;
+    }
+
+    /**
+     * 是否启用确定性模式：固定步长、按种子派生随机数、与线程数无关的固定顺序归约
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * 确定性模式下的随机种子
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * 确定性模式下的固定步长（秒），非确定性模式返回 0 表示按实际耗时
+     */
+    public float getFixedDeltaTime() {
+        return deterministic ? 1.0f / tickRate : 0f;
+    }
+
+    @Override
+    public String toString() {
+        return "PerformanceProfile{threads=" + physicsThreads
+                + ", physicsParallelThreshold=" + physicsParallelThreshold
+                + ", substep=" + physicsSubstep
+                + ", maxTravel=" + physicsMaxTravel
+                + ", sweptCollision=" + sweptCollision
+                + ", parallelThreshold=" + parallelThreshold
+                + ", batchSize=" + avoidanceBatchSize
+                + ", autoTune=" + avoidanceAutoTune
+                + ", avoidanceRadius=" + avoidanceRadius
+                + ", avoidanceQuality=" + avoidanceQuality
+                + ", maxNeighbors=" + avoidanceMaxNeighbors
+                + ", avoidanceBudgetMs=" + avoidanceBudgetMs
+                + ", autoQuality=" + avoidanceAutoQuality
+                + ", tickRate=" + tickRate
+                + ", statsIntervalSec=" + statsIntervalSec
+                + ", renderBackend=" + renderBackend
+                + ", softwareThreads=" + softwareThreads
+                + ", dirtyRects=" + dirtyRects
+                + ", batching=" + drawBatching
+                + ", spriteCachePixels=" + spriteCachePixels
+                + ", fullRepaintRatio=" + fullRepaintRatio
+                + ", keyframeInterval=" + keyframeIntervalSec
+                + ", sampleFps=" + recordingSampleFps
+                + ", queueCapacity=" + recordingQueueCapacity
+                + ", simd=" + simdEnabled
+                + ", homingAcceleration=" + homingAcceleration
+                + ", flowFieldCellSize=" + flowFieldCellSize
+                + ", particleCapacity=" + particleCapacity
+                + ", particleParallelThreshold=" + particleParallelThreshold
+                + ", deterministic=" + deterministic
+                + ", seed=" + seed + "}";
+    }
+}
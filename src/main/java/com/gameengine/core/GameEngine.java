@@ -17,19 +17,38 @@ public class GameEngine {
     private RecordingService recordingService;
     private boolean running;
     private float targetFPS;
+    private final float fixedDeltaTime;
     private float deltaTime;
     private long lastTime;
     private String title;
     private Timer gameTimer;
+    // 呈现耗时与绘制批次统计，按 engine.statsIntervalSec 周期打印
+    private final long statsIntervalNanos;
+    private long statsWindowStart;
+    private long lastPresentedFrames;
+    private int windowPresented;
+    private long windowPresentNanos;
+    private long windowMaxPresentNanos;
+    private int windowFrames;
+    private long windowPrimitives;
+    private long windowBatches;
 
     public GameEngine(int width, int height, String title) {
         this.title = title;
-        this.renderer = new Renderer(width, height, title);
+        this.renderer = new Renderer(width, height, title, GameConfig.getProfile().getRenderBackend());
+        this.renderer.setSoftwareThreads(GameConfig.getProfile().getSoftwareThreads());
+        this.renderer.setDirtyRectangles(GameConfig.getProfile().isDirtyRects(),
+                GameConfig.getProfile().getFullRepaintRatio());
+        this.renderer.setBatching(GameConfig.getProfile().isDrawBatching());
+        this.renderer.setShapeSpriteBudget(GameConfig.getProfile().getSpriteCachePixels());
         this.inputManager = InputManager.getInstance();
         this.running = false;
-        this.targetFPS = 60.0f;
+        this.targetFPS = GameConfig.getProfile().getTickRate();
+        this.fixedDeltaTime = GameConfig.getProfile().getFixedDeltaTime();
         this.deltaTime = 0.0f;
         this.lastTime = System.nanoTime();
+        this.statsIntervalNanos = (long) (GameConfig.getProfile().getStatsIntervalSec() * 1_000_000_000L);
+        this.statsWindowStart = lastTime;
     }
 
     /**
@@ -78,6 +97,10 @@ public class GameEngine {
         long currentTime = System.nanoTime();
         deltaTime = (currentTime - lastTime) / 1_000_000_000.0f; // 转换为秒
         lastTime = currentTime;
+        // 确定性模式下每帧推进固定步长，与定时器抖动无关
+        if (fixedDeltaTime > 0) {
+            deltaTime = fixedDeltaTime;
+        }
 
         if (recordingService != null && recordingService.isRecording()) {
             recordingService.update(deltaTime, currentScene, inputManager);
@@ -133,6 +156,40 @@ public class GameEngine {
         }
 
         renderer.endFrame();
+        reportRenderStats();
+    }
+
+    /**
+     * 累计每帧的图元数、批次数与实际显示的帧的呈现耗时，每个统计周期打印
+     */
+    private void reportRenderStats() {
+        if (statsIntervalNanos <= 0) return;
+        windowFrames++;
+        windowPrimitives += renderer.getLastPrimitiveCount();
+        windowBatches += renderer.getLastBatchCount();
+        long presented = renderer.getPresentedFrames();
+        if (presented != lastPresentedFrames) {
+            lastPresentedFrames = presented;
+            long nanos = renderer.getLastPresentNanos();
+            windowPresented++;
+            windowPresentNanos += nanos;
+            windowMaxPresentNanos = Math.max(windowMaxPresentNanos, nanos);
+        }
+        long now = System.nanoTime();
+        if (now - statsWindowStart < statsIntervalNanos) return;
+        System.out.printf("绘制：%d 帧，平均每帧 %.0f 个图元、%.0f 批%n", windowFrames,
+                (double) windowPrimitives / windowFrames, (double) windowBatches / windowFrames);
+        if (windowPresented > 0) {
+            System.out.printf("呈现：%d 帧，平均 %.2f ms，最长 %.2f ms%n", windowPresented,
+                    windowPresentNanos / 1e6 / windowPresented, windowMaxPresentNanos / 1e6);
+        }
+        statsWindowStart = now;
+        windowPresented = 0;
+        windowPresentNanos = 0;
+        windowMaxPresentNanos = 0;
+        windowFrames = 0;
+        windowPrimitives = 0;
+        windowBatches = 0;
     }
 
     /**
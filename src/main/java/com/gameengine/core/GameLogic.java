@@ -1,18 +1,27 @@
 package com.gameengine.core;
 
+import com.gameengine.components.ColliderComponent;
 import com.gameengine.components.TransformComponent;
 import com.gameengine.components.PhysicsComponent;
 import com.gameengine.core.GameObject;
 import com.gameengine.input.InputManager;
+import com.gameengine.math.FloatKernels;
 import com.gameengine.math.Vector2;
+import com.gameengine.particles.ParticleEmitter;
+import com.gameengine.particles.ParticleSystem;
+import com.gameengine.physics.AvoidanceSystem;
+import com.gameengine.physics.BoundsSystem;
+import com.gameengine.physics.CollisionLayers;
+import com.gameengine.physics.CollisionSystem;
+import com.gameengine.physics.FlowFieldSystem;
+import com.gameengine.physics.FreeSpaceService;
+import com.gameengine.physics.PhysicsSystem;
 import com.gameengine.scene.Scene;
 import com.gameengine.config.GameConfig;
+import com.gameengine.config.PerformanceProfile;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.Random;
 
@@ -20,26 +29,111 @@ import java.util.Random;
  * 游戏逻辑类，处理具体的游戏规则
  */
 public class GameLogic {
+    private static final float RESPAWN_CELL_SIZE = 16f;
+    private static final float HOMING_MAX_SPEED = 150f;
+
     private Scene scene;
     private InputManager inputManager;
     private boolean gameOver;
     private GameEngine gameEngine;
-    private ExecutorService physicsExecutor;
+    private ForkJoinPool physicsExecutor;
+    private final boolean ownsExecutor;
+    private final PerformanceProfile profile;
+    private final AvoidanceSystem avoidanceSystem;
+    private final CollisionSystem collisionSystem;
+    private final PhysicsSystem physicsSystem;
+    private final BoundsSystem boundsSystem;
+    private final FlowFieldSystem flowField;
+    private final ParticleSystem particles;
+    private final int hitEmitter;
+    private final int despawnEmitter;
+    private AvoidanceSystem.Quality lastAvoidanceQuality;
+    // 敌人消失统计，按 engine.statsIntervalSec 周期打印
+    private final long statsIntervalNanos;
+    private long statsWindowStart = System.nanoTime();
+    private int windowFrames;
+    private int windowDespawned;
+    private int windowMaxDespawned;
+    private final FreeSpaceService freeSpace;
+    private final float[] spawnPoint = new float[2];
+    private final FloatKernels kernels;
+    private final Random respawnRandom;
     private int HP;
     
     public GameLogic(Scene scene) {
+        this(scene, RandomStreams.fromProfile(GameConfig.getProfile()));
+    }
+
+    /**
+     * @param randomStreams 随机数流，重生位置使用其中的 "respawn" 流
+     */
+    public GameLogic(Scene scene, RandomStreams randomStreams) {
+        this(scene, randomStreams, InputManager.getInstance(),
+                new ForkJoinPool(GameConfig.getProfile().getPhysicsThreads()), true);
+    }
+
+    /**
+     * 使用独立的输入与线程池，供无窗口批量模拟使用
+     * @param pool 物理/避让/粒子并行用的线程池，为 null 时全部串行；不会被 shutdown 关闭
+     */
+    public GameLogic(Scene scene, RandomStreams randomStreams, InputManager inputManager, ForkJoinPool pool) {
+        this(scene, randomStreams, inputManager, pool, false);
+    }
+
+    private GameLogic(Scene scene, RandomStreams randomStreams, InputManager inputManager, ForkJoinPool pool,
+                      boolean ownsExecutor) {
         this.scene = scene;
-        this.inputManager = InputManager.getInstance();
+        this.inputManager = inputManager;
         this.gameOver = false;
-        int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
-        this.physicsExecutor = Executors.newFixedThreadPool(threadCount);
+        this.profile = GameConfig.getProfile();
+        this.physicsExecutor = pool;
+        this.ownsExecutor = ownsExecutor;
+        this.kernels = FloatKernels.select(profile.isSimdEnabled());
+        this.avoidanceSystem = new AvoidanceSystem(physicsExecutor, profile.getParallelThreshold(),
+                profile.getAvoidanceBatchSize(), profile.isAvoidanceAutoTune(), profile.getAvoidanceRadius(),
+                GameConfig.WIDTH, GameConfig.HEIGHT, kernels);
+        this.avoidanceSystem.setDeterministic(profile.isDeterministic());
+        this.avoidanceSystem.setQualityControl(
+                AvoidanceSystem.Quality.valueOf(profile.getAvoidanceQuality().toUpperCase()),
+                profile.getAvoidanceMaxNeighbors(), profile.getAvoidanceBudgetMs(),
+                profile.isAvoidanceAutoQuality() && !profile.isDeterministic());
+        this.lastAvoidanceQuality = avoidanceSystem.getQuality();
+        this.respawnRandom = randomStreams.stream("respawn");
+        this.particles = new ParticleSystem(profile.getParticleCapacity(), physicsExecutor,
+                profile.getParticleParallelThreshold(), randomStreams.stream("particles").nextLong());
+        this.hitEmitter = particles.registerEmitter(
+                new ParticleEmitter(48, 60f, 220f, 0.3f, 0.8f, 3, 0xFFFF4030, 0f));
+        this.despawnEmitter = particles.registerEmitter(
+                new ParticleEmitter(16, 20f, 90f, 0.2f, 0.5f, 2, 0xFFFFA020, 200f));
+        this.collisionSystem = new CollisionSystem();
+        this.freeSpace = new FreeSpaceService(collisionSystem, 0, 0, GameConfig.WIDTH - 20, GameConfig.HEIGHT - 20,
+                RESPAWN_CELL_SIZE);
+        this.physicsSystem = new PhysicsSystem(physicsExecutor, profile.getPhysicsThreads(),
+                profile.getPhysicsParallelThreshold(), kernels);
+        this.physicsSystem.setBounds(0, 0, GameConfig.WIDTH - 20, GameConfig.HEIGHT - 20);
+        this.physicsSystem.setSubstepping(profile.getPhysicsSubstep(), profile.getPhysicsMaxTravel());
+        this.flowField = new FlowFieldSystem(GameConfig.WIDTH, GameConfig.HEIGHT, profile.getFlowFieldCellSize());
+        // 敌人落到底部边界即消失
+        this.boundsSystem = new BoundsSystem(obj -> "Enemy".equals(obj.getName()));
+        this.boundsSystem.setKeepRegion(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+                Float.POSITIVE_INFINITY, GameConfig.HEIGHT - 20);
         this.HP = 5;
+        this.statsIntervalNanos = (long) (profile.getStatsIntervalSec() * 1_000_000_000L);
     }
 
     public void setGameEngine(GameEngine engine) {
         this.gameEngine = engine;
     }
 
+    /**
+     * 关闭自己创建的线程池，外部传入的线程池由调用方负责
+     */
+    public void shutdown() {
+        if (ownsExecutor && physicsExecutor != null) {
+            physicsExecutor.shutdown();
+        }
+    }
+
     public boolean isGameOver() {
         return gameOver;
     }
@@ -91,40 +185,54 @@ public class GameLogic {
     }
     
     /**
-     * 更新物理系统
+     * 积分所有物理物体（速度、加速度、摩擦力与位置）
+     */
+    public void integratePhysics(float deltaTime) {
+        physicsSystem.update(scene, deltaTime);
+    }
+    
+    /**
+     * 更新物理系统（边界反弹与夹紧已由 PhysicsSystem 在积分后批量完成，这里处理敌人落地消失）
      */
     public void updatePhysics() {
-        List<PhysicsComponent> physicsComponents = scene.getComponents(PhysicsComponent.class);
-        for (PhysicsComponent physics : physicsComponents) {
-            // 边界反弹
-            TransformComponent transform = physics.getOwner().getComponent(TransformComponent.class);
-            if (transform != null) {
-                Vector2 pos = transform.getPosition();
-                Vector2 velocity = physics.getVelocity();
-                
-                if(physics.getOwner().getName() == "Enemy" && pos.y >= GameConfig.HEIGHT - 20)
-                {
-                    scene.removeGameObject(physics.getOwner());
-                    return ;
-                }
-
-                if (pos.x <= 0 || pos.x >= GameConfig.WIDTH - 20) {
-                    velocity.x = -velocity.x;
-                    physics.setVelocity(velocity);
-                }
-                if (pos.y <= 0 || pos.y >= GameConfig.HEIGHT - 20) {
-                    velocity.y = -velocity.y;
-                    physics.setVelocity(velocity);
-                }
-                
-                // 确保在边界内
-                if (pos.x < 0) pos.x = 0;
-                if (pos.y < 0) pos.y = 0;
-                if (pos.x > GameConfig.WIDTH - 20) pos.x = GameConfig.WIDTH - 20;
-                if (pos.y > GameConfig.HEIGHT - 20) pos.y = GameConfig.HEIGHT - 20;
-                transform.setPosition(pos);
-            }
+        int despawned = boundsSystem.update(scene);
+        for (int i = 0; i < despawned; i++) {
+            particles.emit(despawnEmitter, boundsSystem.getDespawnX(i) + 10, boundsSystem.getDespawnY(i) + 10);
         }
+        reportDespawns(despawned);
+    }
+
+    /**
+     * 累计每帧消失数，每个统计周期打印一行；无窗口批量模拟时不打印
+     */
+    private void reportDespawns(int despawned) {
+        if (gameEngine == null || statsIntervalNanos <= 0) return;
+        windowFrames++;
+        windowDespawned += despawned;
+        windowMaxDespawned = Math.max(windowMaxDespawned, despawned);
+        long now = System.nanoTime();
+        if (now - statsWindowStart < statsIntervalNanos) return;
+        System.out.printf("敌人消失：%d 帧共 %d 个，单帧最多 %d 个，累计 %d 个%n",
+                windowFrames, windowDespawned, windowMaxDespawned, boundsSystem.getTotalDespawned());
+        statsWindowStart = now;
+        windowFrames = 0;
+        windowDespawned = 0;
+        windowMaxDespawned = 0;
+    }
+
+    /**
+     * 积分粒子（展开本帧的爆发请求）
+     */
+    public void updateParticles(float deltaTime) {
+        particles.update(deltaTime);
+    }
+
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+
+    public BoundsSystem getBoundsSystem() {
+        return boundsSystem;
     }
 
     private List<GameObject> getEnemies() {
@@ -140,141 +248,132 @@ public class GameLogic {
         List<GameObject> enemies = getEnemies();
         if (enemies.isEmpty()) return;
         
-        if (enemies.size() < 10) {
-            handleEnemyAvoidanceSerial(enemies, deltaTime);
-        } else {
-            handleEnemyAvoidanceParallel(enemies, deltaTime);
+        avoidanceSystem.update(enemies, deltaTime);
+        if (avoidanceSystem.getQuality() != lastAvoidanceQuality) {
+            lastAvoidanceQuality = avoidanceSystem.getQuality();
+            // 无窗口批量模拟时不打印
+            if (gameEngine != null) System.out.println("避让质量调整为 " + lastAvoidanceQuality + "（敌人 " + enemies.size() + "）");
         }
     }
-    
-    private void handleEnemyAvoidanceSerial(List<GameObject> enemies, float deltaTime) {
-        for (int i = 0; i < enemies.size(); i++) {
-            processAvoidance(enemies, i, deltaTime);
-        }
+
+    /**
+     * 当前避让质量等级
+     */
+    public AvoidanceSystem.Quality getAvoidanceQuality() {
+        return avoidanceSystem.getQuality();
     }
     
-    private void handleEnemyAvoidanceParallel(List<GameObject> enemies, float deltaTime) {
-        int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-        threadCount = Math.max(2, threadCount);
-        int batchSize = Math.max(1, enemies.size() / threadCount + 1);
-        
-        List<Future<?>> futures = new ArrayList<>();
-        
-        for (int i = 0; i < enemies.size(); i += batchSize) {
-            final int start = i;
-            final int end = Math.min(i + batchSize, enemies.size());
-            
-            Future<?> future = physicsExecutor.submit(() -> {
-                for (int j = start; j < end; j++) {
-                    processAvoidance(enemies, j, deltaTime);
-                }
-            });
-            
-            futures.add(future);
-        }
-        
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        }
+    /**
+     * 敌人沿流场追踪玩家：流场只在玩家换格时重算，每个敌人按所在格子查一次方向
+     */
+    public void handleEnemyHoming(float deltaTime) {
+        float acceleration = profile.getHomingAcceleration();
+        if (gameOver || acceleration <= 0) return;
+        List<GameObject> objects = scene.getGameObjectsView();
+        if (objects.isEmpty()) return;
+        TransformComponent playerTransform = objects.get(0).getComponent(TransformComponent.class);
+        if (playerTransform == null) return;
+
+        List<GameObject> enemies = getEnemies();
+        if (enemies.isEmpty()) return;
+        flowField.update(playerTransform.getX(), playerTransform.getY());
+        flowField.steer(enemies, acceleration, HOMING_MAX_SPEED, deltaTime);
     }
-    
-    private void processAvoidance(List<GameObject> enemies, int index, float deltaTime) {
-        GameObject Enemy1 = enemies.get(index);
-        TransformComponent transform1 = Enemy1.getComponent(TransformComponent.class);
-        PhysicsComponent physics1 = Enemy1.getComponent(PhysicsComponent.class);
-        
-        if (transform1 == null || physics1 == null) return;
-        
-        Vector2 pos1 = transform1.getPosition();
-        Vector2 avoidance = new Vector2();
-        
-        for (int j = index + 1; j < enemies.size(); j++) {
-            GameObject Enemy2 = enemies.get(j);
-            TransformComponent transform2 = Enemy2.getComponent(TransformComponent.class);
-            
-            if (transform2 == null) continue;
-            
-            Vector2 pos2 = transform2.getPosition();
-            float distance = pos1.distance(pos2);
-            
-            if (distance < 50 && distance > 0) {
-                Vector2 direction = pos1.subtract(pos2).normalize();
-                float strength = (50 - distance) / 80.0f;
-                avoidance = avoidance.add(direction.multiply(strength * 50));
-            }
-        }
-        
-        if (avoidance.magnitude() > 0) {
-            Vector2 currentVelocity = physics1.getVelocity();
-            float lerpFactor = 1.0f;
-            Vector2 avoidanceDirection = avoidance.normalize();
-            float avoidanceStrength = Math.min(avoidance.magnitude(), 50f);
-            
-            Vector2 targetVelocity = currentVelocity.add(
-                avoidanceDirection.multiply(avoidanceStrength * deltaTime * 10)
-            );
-            
-            Vector2 newVelocity = new Vector2(
-                currentVelocity.x + (targetVelocity.x - currentVelocity.x) * lerpFactor,
-                currentVelocity.y + (targetVelocity.y - currentVelocity.y) * lerpFactor
-            );
-            
-            float maxSpeed = 150f;
-            if (newVelocity.magnitude() > maxSpeed) {
-                newVelocity = newVelocity.normalize().multiply(maxSpeed);
-            }
-            
-            physics1.setVelocity(newVelocity);
-        }
+
+    public FlowFieldSystem getFlowField() {
+        return flowField;
     }
+
     /**
-     * 检查碰撞
+     * 计算本帧的碰撞接触对，每帧调用一次，结果供所有系统共享
+     */
+    public void updateCollisions() {
+        collisionSystem.update(scene);
+    }
+
+    public CollisionSystem getCollisionSystem() {
+        return collisionSystem;
+    }
+
+    /**
+     * 检查碰撞（读取本帧 updateCollisions 的结果）
      */
     public boolean checkCollisions() {
         // 直接查找玩家对象
         GameObject player = scene.getGameObjects().get(0);
-        TransformComponent playerTransform = player.getComponent(TransformComponent.class);
-        if (playerTransform == null) return false;
-        
-        // 直接查找所有游戏对象，然后过滤出敌人
-        for (GameObject obj : getEnemies()) {
-            TransformComponent enemyTransform = obj.getComponent(TransformComponent.class);
-            if (enemyTransform != null) {
-                float distance = playerTransform.getPosition().distance(enemyTransform.getPosition());
-                if (distance < 32) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        if (collisionSystem.hasContact(player, CollisionLayers.ENEMY)) return true;
+        // 帧间高速穿过玩家的敌人由扫掠检测补上
+        return profile.isSweptCollision() && collisionSystem.sweptContact(player, CollisionLayers.ENEMY);
     }
 
     public void handleCollisions() {
         GameObject player = scene.getGameObjects().get(0);
         TransformComponent playerTransform = player.getComponent(TransformComponent.class);
+        ColliderComponent collider = player.getComponent(ColliderComponent.class);
+        if (playerTransform != null) {
+            // 受击特效从碰撞体中心发出：圆以 位置+偏移 为圆心，AABB 以其为左上角
+            float hitX = playerTransform.getX(), hitY = playerTransform.getY();
+            if (collider != null) {
+                hitX += collider.getOffsetX();
+                hitY += collider.getOffsetY();
+                if (collider.getShape() == ColliderComponent.Shape.AABB) {
+                    hitX += collider.getSizeX() / 2;
+                    hitY += collider.getSizeY() / 2;
+                }
+            }
+            particles.emit(hitEmitter, hitX, hitY);
+        }
         HP --;
         if(HP == 0)
         {
             gameOver = true;
             if (gameEngine != null) {
                 gameEngine.stop();
+                System.out.println("游戏结束！玩家血量为0！");
             }
-            System.out.println("游戏结束！玩家血量为0！");
             return;
         }
-        Random random = new Random();
-        int attempts = 0;
-        final int MAX_POSITION_ATTEMPTS = 1000;
-        while(checkCollisions() && attempts < MAX_POSITION_ATTEMPTS) {
-            playerTransform.setPosition(new Vector2(random.nextInt(GameConfig.WIDTH - 20), random.nextInt(GameConfig.HEIGHT - 20)));
-            attempts++;
+        if (playerTransform == null || collider == null) return;
+        Vector2 offset = collider.getOffset();
+        float radius = collider.getRadius();
+        if (!collisionSystem.overlapsCircle(playerTransform.getX() + offset.x, playerTransform.getY() + offset.y,
+                radius, collider.getLayer(), collider.getMask(), player)) {
+            return;
+        }
+        // 在本帧占用网格的空闲区域中均匀随机取点，耗时只与格子数有关
+        if (freeSpace.findRandom(respawnRandom, radius, collider.getLayer(), collider.getMask(), player, spawnPoint)) {
+            playerTransform.setPosition(spawnPoint[0] - offset.x, spawnPoint[1] - offset.y);
+            collider.resetSweep();
+        } else {
+            System.err.println("警告: 场景中没有可供玩家重生的无碰撞位置。");
         }
-        if (attempts == MAX_POSITION_ATTEMPTS) {
-            System.err.println("警告: 未能在 " + MAX_POSITION_ATTEMPTS + " 次尝试后为玩家找到无碰撞位置。");
+    }
+
+    /**
+     * 空闲位置查询服务（基于本帧碰撞快照）
+     */
+    public FreeSpaceService getFreeSpace() {
+        return freeSpace;
+    }
+
+    /**
+     * 场景状态校验和：按对象顺序混合位置、速度的位模式与血量，
+     * 用于比较两次运行（如不同线程数）是否逐位一致
+     */
+    public long stateChecksum() {
+        long hash = 1125899906842597L + HP;
+        for (GameObject obj : scene.getGameObjectsView()) {
+            TransformComponent transform = obj.getComponent(TransformComponent.class);
+            if (transform != null) {
+                hash = 31 * hash + Float.floatToIntBits(transform.getX());
+                hash = 31 * hash + Float.floatToIntBits(transform.getY());
+            }
+            PhysicsComponent physics = obj.getComponent(PhysicsComponent.class);
+            if (physics != null) {
+                hash = 31 * hash + Float.floatToIntBits(physics.getVelocityX());
+                hash = 31 * hash + Float.floatToIntBits(physics.getVelocityY());
+            }
         }
+        return hash;
     }
 }
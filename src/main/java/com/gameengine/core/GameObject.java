@@ -1,6 +1,7 @@
 package com.gameengine.core;
 
 import com.gameengine.math.Vector2;
+import com.gameengine.scene.Scene;
 import java.util.*;
 
 /**
@@ -9,7 +10,11 @@ import java.util.*;
 public class GameObject {
     protected boolean active;
     protected String name;
+    // 静态对象画在场景的静态层中，只在静态层重建时绘制
+    protected boolean staticRender;
     protected final List<Component<?>> components;
+    // 所属场景，增删组件时通知它递增结构版本号，使按组件缓存的系统得以重建
+    private Scene scene;
     
     public GameObject() {
         this.active = true;
@@ -36,6 +41,18 @@ public class GameObject {
         renderComponents();
     }
     
+    /**
+     * 标记为静态对象：外观与位置不再变化，由场景缓存到静态层。
+     * 已在场景中的对象改变标记或外观后需调用 Scene.markStaticDirty
+     */
+    public void setStatic(boolean staticRender) {
+        this.staticRender = staticRender;
+    }
+
+    public boolean isStatic() {
+        return staticRender;
+    }
+
     /**
      * 初始化游戏对象
      */
@@ -53,6 +70,7 @@ public class GameObject {
             component.destroy();
         }
         components.clear();
+        componentsChanged();
     }
     
     /**
@@ -62,8 +80,36 @@ public class GameObject {
         component.setOwner(this);
         components.add(component);
         component.initialize();
+        componentsChanged();
         return component;
     }
+
+    /**
+     * 移除并销毁组件，组件不属于本对象时返回 false
+     */
+    public boolean removeComponent(Component<?> component) {
+        if (!components.remove(component)) return false;
+        component.destroy();
+        componentsChanged();
+        return true;
+    }
+
+    private void componentsChanged() {
+        if (scene != null) {
+            scene.markStructureChanged();
+        }
+    }
+
+    /**
+     * 由场景在加入与移出对象时设置，加入场景之前增删组件由加入本身计入结构版本
+     */
+    public void setScene(Scene scene) {
+        this.scene = scene;
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
     
     /**
      * 获取组件
@@ -0,0 +1,42 @@
+package com.gameengine.core;
+
+import com.gameengine.config.PerformanceProfile;
+
+import java.util.Random;
+
+/**
+ * 按系统划分的随机数流：每个系统用自己的名字从同一个种子派生独立的 Random，
+ * 某个系统多取或少取随机数不会打乱其他系统的序列，相同种子得到相同的整局随机数。
+ */
+public final class RandomStreams {
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * 确定性模式使用配置中的种子，否则每次运行取不同的种子
+     */
+    public static RandomStreams fromProfile(PerformanceProfile profile) {
+        return new RandomStreams(profile.isDeterministic() ? profile.getSeed() : System.nanoTime());
+    }
+
+    /**
+     * 为指定系统创建随机数流，同名流的序列相同
+     */
+    public Random stream(String name) {
+        return new Random(mix(seed + 0x9E3779B97F4A7C15L * name.hashCode()));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // SplitMix64 的混合函数，让相近的种子也得到互不相关的序列
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,228 @@
+package com.gameengine.example;
+
+import com.gameengine.config.GameConfig;
+import com.gameengine.config.PerformanceProfile;
+import com.gameengine.core.RandomStreams;
+import com.gameengine.input.InputManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 无窗口批量模拟：在一个 JVM 中托管多个相互独立的 GameScene，用工作线程池按步同步推进。
+ * 每个环境有自己的随机数流、输入状态与脚本输入，场景内部串行，并行只发生在环境之间，
+ * 因此环境越多越能占满所有核心。某个环境游戏结束后用新的种子重开一局。
+ * 运行：gradle batch（或 java --add-modules jdk.incubator.vector -cp ... com.gameengine.example.BatchRunner [环境数] [步数] [种子]）
+ */
+public class BatchRunner {
+    // 批量模拟不渲染，粒子池只保留很小的容量
+    private static final int BATCH_PARTICLE_CAPACITY = 256;
+
+    /**
+     * 脚本输入：每步模拟前调用，向该环境的输入状态写入按键。同一环境在同一时刻只被一个线程调用。
+     */
+    public interface InputScript {
+        void apply(int env, long step, InputManager input);
+    }
+
+    private final int envCount;
+    private final float deltaTime;
+    private final InputScript script;
+    private final ForkJoinPool workers;
+    private final int grain;
+    private final Random[] episodeSeeds;
+    private final InputManager[] inputs;
+    private final GameScene[] scenes;
+    private final int[] episodes;
+
+    private long stepIndex;
+    private long totalEnvSteps;
+    private long totalNanos;
+
+    /**
+     * @param deltaTime 每步的固定时长（秒）
+     * @param workers 工作线程数
+     */
+    public BatchRunner(int envCount, long seed, float deltaTime, int workers, InputScript script) {
+        if (envCount <= 0) throw new IllegalArgumentException("envCount must be positive");
+        this.envCount = envCount;
+        this.deltaTime = deltaTime;
+        this.script = script;
+        this.workers = new ForkJoinPool(Math.max(1, workers));
+        this.grain = Math.max(1, envCount / (this.workers.getParallelism() * 4));
+        this.episodeSeeds = new Random[envCount];
+        this.inputs = new InputManager[envCount];
+        this.scenes = new GameScene[envCount];
+        this.episodes = new int[envCount];
+        RandomStreams master = new RandomStreams(seed);
+        for (int env = 0; env < envCount; env++) {
+            episodeSeeds[env] = master.stream("env" + env);
+            inputs[env] = new InputManager();
+            scenes[env] = newEpisode(env);
+        }
+    }
+
+    private GameScene newEpisode(int env) {
+        GameScene scene = new GameScene(new RandomStreams(episodeSeeds[env].nextLong()), inputs[env], null);
+        scene.initialize();
+        return scene;
+    }
+
+    /**
+     * 所有环境同步推进 steps 步
+     */
+    public void step(int steps) {
+        long start = System.nanoTime();
+        for (int s = 0; s < steps; s++) {
+            workers.invoke(new StepTask(0, envCount));
+            stepIndex++;
+        }
+        totalNanos += System.nanoTime() - start;
+        totalEnvSteps += (long) steps * envCount;
+    }
+
+    private void stepEnv(int env) {
+        InputManager input = inputs[env];
+        script.apply(env, stepIndex, input);
+        GameScene scene = scenes[env];
+        scene.update(deltaTime);
+        input.update();
+        if (scene.getGameLogic().isGameOver()) {
+            scene.clear();
+            scenes[env] = newEpisode(env);
+            episodes[env]++;
+        }
+    }
+
+    private class StepTask extends RecursiveAction {
+        private final int start, end;
+
+        StepTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > grain) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new StepTask(start, mid), new StepTask(mid, end));
+                return;
+            }
+            for (int env = start; env < end; env++) {
+                stepEnv(env);
+            }
+        }
+    }
+
+    /**
+     * 关闭工作线程池并清空所有场景
+     */
+    public void shutdown() {
+        workers.shutdown();
+        for (GameScene scene : scenes) {
+            scene.clear();
+        }
+    }
+
+    public int getEnvCount() {
+        return envCount;
+    }
+
+    public GameScene getScene(int env) {
+        return scenes[env];
+    }
+
+    /**
+     * 所有环境累计推进的步数之和
+     */
+    public long getTotalEnvSteps() {
+        return totalEnvSteps;
+    }
+
+    /**
+     * 已结束的局数
+     */
+    public long getFinishedEpisodes() {
+        long total = 0;
+        for (int count : episodes) total += count;
+        return total;
+    }
+
+    /**
+     * 吞吐量：每秒推进的环境步数
+     */
+    public double getEnvStepsPerSecond() {
+        return totalNanos > 0 ? totalEnvSteps * 1e9 / totalNanos : 0;
+    }
+
+    /**
+     * 随机游走脚本：每个环境按自己的随机数流选择方向键，保持若干步后再换方向
+     */
+    public static class RandomWalkScript implements InputScript {
+        private static final int[] KEYS = {87, 83, 65, 68}; // W S A D
+        private final Random[] randoms;
+        private final int[] heldKey;
+        private final int[] holdSteps;
+
+        public RandomWalkScript(int envCount, long seed) {
+            this.randoms = new Random[envCount];
+            this.heldKey = new int[envCount];
+            this.holdSteps = new int[envCount];
+            RandomStreams streams = new RandomStreams(seed);
+            for (int env = 0; env < envCount; env++) {
+                randoms[env] = streams.stream("input" + env);
+                heldKey[env] = -1;
+            }
+        }
+
+        @Override
+        public void apply(int env, long step, InputManager input) {
+            if (holdSteps[env]-- > 0) return;
+            if (heldKey[env] >= 0) input.onKeyReleased(heldKey[env]);
+            Random random = randoms[env];
+            heldKey[env] = KEYS[random.nextInt(KEYS.length)];
+            holdSteps[env] = 10 + random.nextInt(50);
+            input.onKeyPressed(heldKey[env]);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int envs = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 8;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        // 沿用性能配置文件，只缩小粒子池
+        Properties props = new Properties();
+        Path path = Paths.get(System.getProperty(PerformanceProfile.PATH_PROPERTY, PerformanceProfile.DEFAULT_PATH));
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                props.load(reader);
+            }
+        }
+        props.setProperty("particles.capacity", String.valueOf(BATCH_PARTICLE_CAPACITY));
+        PerformanceProfile profile = PerformanceProfile.fromProperties(props);
+        GameConfig.setProfile(profile);
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        BatchRunner runner = new BatchRunner(envs, seed, 1f / profile.getTickRate(), workers,
+                new RandomWalkScript(envs, seed));
+        System.out.println("环境数: " + envs + ", 工作线程: " + workers + ", 步数: " + steps);
+        // 暖机，让 JIT 完成编译
+        runner.step(Math.min(200, steps));
+        long warmSteps = runner.getTotalEnvSteps();
+        long warmNanos = runner.totalNanos;
+        runner.step(steps);
+        double rate = (runner.getTotalEnvSteps() - warmSteps) * 1e9 / (runner.totalNanos - warmNanos);
+        System.out.printf("吞吐量: %.0f 环境步/秒（%.1f 秒模拟/秒），结束局数: %d%n",
+                rate, rate / profile.getTickRate(), runner.getFinishedEpisodes());
+        runner.shutdown();
+    }
+}
@@ -0,0 +1,89 @@
+package com.gameengine.example;
+
+import com.gameengine.config.GameConfig;
+import com.gameengine.config.PerformanceProfile;
+import com.gameengine.core.RandomStreams;
+import com.gameengine.input.InputManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 确定性检查：以确定性模式用同一种子和同一脚本输入分别在 1 个线程和多个线程上推进一个无窗口 GameScene，
+ * 逐步比较 GameLogic.stateChecksum()，不一致时报告首个分歧的步数并以非零状态退出。
+ * 并行阈值全部压到 1，保证多线程运行确实走并行路径。
+ * 运行：gradle determinism（或 java --add-modules jdk.incubator.vector -cp ... com.gameengine.example.DeterminismCheck [步数] [种子] [线程数]）
+ */
+public class DeterminismCheck {
+    /**
+     * 以 threads 个线程（线程池与 physics.threads 同时设置）推进 steps 步（游戏结束则提前停止），
+     * 返回每一步之后的校验和
+     */
+    static long[] run(Properties props, int threads, int steps, long seed) {
+        props.setProperty("physics.threads", String.valueOf(threads));
+        GameConfig.setProfile(PerformanceProfile.fromProperties(props));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        InputManager input = new InputManager();
+        GameScene scene = new GameScene(new RandomStreams(seed), input, pool);
+        scene.initialize();
+        BatchRunner.InputScript script = new BatchRunner.RandomWalkScript(1, seed);
+        float deltaTime = GameConfig.getProfile().getFixedDeltaTime();
+        long[] checksums = new long[steps];
+        int done = 0;
+        try {
+            while (done < steps) {
+                script.apply(0, done, input);
+                scene.update(deltaTime);
+                input.update();
+                checksums[done++] = scene.getGameLogic().stateChecksum();
+                if (scene.getGameLogic().isGameOver()) break;
+            }
+        } finally {
+            scene.clear();
+            pool.shutdown();
+        }
+        return Arrays.copyOf(checksums, done);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        // 沿用性能配置文件，强制确定性模式并让各系统在任意规模下都并行
+        Properties props = new Properties();
+        Path path = Paths.get(System.getProperty(PerformanceProfile.PATH_PROPERTY, PerformanceProfile.DEFAULT_PATH));
+        if (Files.exists(path)) {
+            try (Reader reader = Files.newBufferedReader(path)) {
+                props.load(reader);
+            }
+        }
+        props.setProperty("sim.deterministic", "true");
+        props.setProperty("physics.parallelThreshold", "1");
+        props.setProperty("avoidance.parallelThreshold", "1");
+        props.setProperty("particles.parallelThreshold", "1");
+
+        long[] serial = run(props, 1, steps, seed);
+        long[] parallel = run(props, threads, steps, seed);
+        System.out.println("种子: " + seed + ", 步数: " + serial.length + ", 线程: 1 对 " + threads);
+        int n = Math.min(serial.length, parallel.length);
+        for (int i = 0; i < n; i++) {
+            if (serial[i] != parallel[i]) {
+                System.out.printf("不一致：第 %d 步 %016x != %016x%n", i + 1, serial[i], parallel[i]);
+                System.exit(1);
+            }
+        }
+        if (serial.length != parallel.length) {
+            System.out.println("不一致：游戏结束的步数不同（" + serial.length + " 对 " + parallel.length + "）");
+            System.exit(1);
+        }
+        System.out.printf("一致：最终校验和 %016x%n", n > 0 ? serial[n - 1] : 0L);
+    }
+}
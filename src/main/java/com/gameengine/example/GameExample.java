@@ -3,6 +3,7 @@ package com.gameengine.example;
 import com.gameengine.core.GameEngine;
 import com.gameengine.scene.Scene;
 import com.gameengine.config.GameConfig;
+import com.gameengine.config.PerformanceProfile;
 
 /**
  * 游戏示例
@@ -12,6 +13,11 @@ public class GameExample {
         System.out.println("启动游戏引擎...");
 
         try {
+            // 加载性能配置
+            PerformanceProfile profile = PerformanceProfile.loadDefault();
+            GameConfig.setProfile(profile);
+            System.out.println("性能配置: " + profile);
+
             // 创建游戏引擎
             GameEngine engine = new GameEngine(GameConfig.WIDTH, GameConfig.HEIGHT, "My Game");
 
@@ -1,7 +1,9 @@
 package com.gameengine.example;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import com.gameengine.components.ColliderComponent;
 import com.gameengine.components.PhysicsComponent;
 import com.gameengine.components.RenderComponent;
 import com.gameengine.components.TransformComponent;
@@ -9,8 +11,11 @@ import com.gameengine.config.GameConfig;
 import com.gameengine.core.GameEngine;
 import com.gameengine.core.GameLogic;
 import com.gameengine.core.GameObject;
+import com.gameengine.core.RandomStreams;
 import com.gameengine.graphics.Renderer;
+import com.gameengine.input.InputManager;
 import com.gameengine.math.Vector2;
+import com.gameengine.physics.CollisionLayers;
 import com.gameengine.scene.Scene;
 import com.gameengine.example.EntityFactory;
 
@@ -21,21 +26,46 @@ public class GameScene extends Scene {
     private float enemyCreateTime, time;
     private int enemyCreatedPerSec;
     private GameLogic gameLogic;
+    // 无窗口模式下由外部提供的随机数流、输入与线程池
+    private final RandomStreams headlessStreams;
+    private final InputManager headlessInput;
+    private final ForkJoinPool headlessPool;
 
     public GameScene(GameEngine engine) {
         super("GameScene");
         this.engine = engine;
+        this.headlessStreams = null;
+        this.headlessInput = null;
+        this.headlessPool = null;
+    }
+
+    /**
+     * 无窗口场景：没有引擎和渲染器，只做模拟，不能调用 render
+     * @param pool 场景内部并行用的线程池，为 null 时串行
+     */
+    public GameScene(RandomStreams randomStreams, InputManager inputManager, ForkJoinPool pool) {
+        super("GameScene");
+        this.engine = null;
+        this.headlessStreams = randomStreams;
+        this.headlessInput = inputManager;
+        this.headlessPool = pool;
     }
 
     @Override
     public void initialize() {
         super.initialize();
-        this.renderer = engine.getRenderer();
-        this.random = new Random();
         this.time = this.enemyCreateTime = 0;
         this.enemyCreatedPerSec = 1;
-        this.gameLogic = new GameLogic(this);
-        this.gameLogic.setGameEngine(engine);
+        if (engine != null) {
+            this.renderer = engine.getRenderer();
+            RandomStreams randomStreams = RandomStreams.fromProfile(GameConfig.getProfile());
+            this.random = randomStreams.stream("spawn");
+            this.gameLogic = new GameLogic(this, randomStreams);
+            this.gameLogic.setGameEngine(engine);
+        } else {
+            this.random = headlessStreams.stream("spawn");
+            this.gameLogic = new GameLogic(this, headlessStreams, headlessInput, headlessPool);
+        }
 
         // 创建游戏对象
         createPlayer();
@@ -47,16 +77,19 @@ public class GameScene extends Scene {
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
+        gameLogic.integratePhysics(deltaTime);
         time += deltaTime;
         enemyCreateTime += deltaTime;
 
         // 使用游戏逻辑类处理游戏规则
         gameLogic.handlePlayerInput();
+        gameLogic.handleEnemyHoming(deltaTime);
         gameLogic.handleEnemyAvoidance(deltaTime);
         gameLogic.updatePhysics();
+        gameLogic.updateCollisions();
         if (gameLogic.checkCollisions())
             gameLogic.handleCollisions();
-        gameLogic.checkCollisions();
+        gameLogic.updateParticles(deltaTime);
 
         if (gameLogic.isGameOver()) {
             return;
@@ -73,13 +106,31 @@ public class GameScene extends Scene {
         }
     }
 
+    @Override
+    public void clear() {
+        super.clear();
+        if (gameLogic != null) {
+            gameLogic.shutdown();
+        }
+    }
+
+    public GameLogic getGameLogic() {
+        return gameLogic;
+    }
+
     @Override
     public void render() {
-        // 绘制背景
-        renderer.drawRect(0, 0, GameConfig.WIDTH, GameConfig.HEIGHT, 0.1f, 0.1f, 0.2f, 1.0f);
+        // 背景与装饰物缓存在静态层，只在装饰物增删时重绘
+        if (renderer.beginStaticLayer(this, getStaticVersion())) {
+            renderer.drawRect(0, 0, GameConfig.WIDTH, GameConfig.HEIGHT, 0.1f, 0.1f, 0.2f, 1.0f);
+            renderStatic();
+            renderer.endStaticLayer();
+        }
+        renderer.drawStaticLayer();
 
-        // 渲染所有对象
+        // 渲染动态对象
         super.render();
+        gameLogic.getParticles().render(renderer);
 
         if (gameLogic.isGameOver()) {
             renderer.drawRect((GameConfig.WIDTH - 400) / 2, (GameConfig.HEIGHT - 100) / 2, 400, 100, 0.0f, 0.0f, 0.0f,
@@ -100,6 +151,10 @@ public class GameScene extends Scene {
         PhysicsComponent physics = player.addComponent(new PhysicsComponent(1.0f));
         physics.setFriction(0.95f);
 
+        // 添加碰撞组件（与敌人圆心距小于 32 即判定碰撞）
+        player.addComponent(new ColliderComponent(ColliderComponent.Shape.CIRCLE, new Vector2(32, 32),
+                CollisionLayers.PLAYER, CollisionLayers.ENEMY));
+
         addGameObject(player);
     }
 
@@ -137,6 +192,10 @@ public class GameScene extends Scene {
         physics.setUseGravity(true);
         // physics.setGravity(position);
 
+        // 添加碰撞组件
+        enemy.addComponent(new ColliderComponent(ColliderComponent.Shape.CIRCLE, new Vector2(32, 32),
+                CollisionLayers.ENEMY, CollisionLayers.PLAYER));
+
         addGameObject(enemy);
     }
 
@@ -162,6 +221,7 @@ public class GameScene extends Scene {
                 new Vector2(5, 5),
                 new RenderComponent.Color(0.5f, 0.5f, 1.0f, 0.8f)));
         render.setRenderer(renderer);
+        decoration.setStatic(true);
 
         addGameObject(decoration);
     }
@@ -115,7 +115,11 @@ public class ReplayScene extends Scene {
 
     @Override
     public void render() {
-        renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.06f, 0.06f, 0.08f, 1.0f);
+        if (renderer.beginStaticLayer(this, getStaticVersion())) {
+            renderer.drawRect(0, 0, renderer.getWidth(), renderer.getHeight(), 0.06f, 0.06f, 0.08f, 1.0f);
+            renderer.endStaticLayer();
+        }
+        renderer.drawStaticLayer();
         if (recordingPath == null) {
             renderFileList();
             return;
@@ -0,0 +1,205 @@
+package com.gameengine.graphics;
+
+import java.util.Arrays;
+
+/**
+ * 脏矩形跟踪：把屏幕划分为固定大小的瓦片，每帧按提交顺序把每条绘制命令的内容哈希
+ * 混入它覆盖的瓦片。与上一帧哈希不同的瓦片即为变化区域（同时覆盖了旧位置和新位置），
+ * 再按行合并成少量矩形。矩形过多时合并为包围盒，脏面积超过阈值时退化为整屏重绘。
+ */
+final class DirtyTracker {
+    private static final int TILE = 32;
+    private static final int MAX_RECTS = 16;
+    // 绘制时抗锯齿会超出整数边界，包围盒向外扩展
+    private static final int MARGIN = 2;
+
+    private final int width;
+    private final int height;
+    private final int cols;
+    private final int rows;
+    private final float fullRepaintRatio;
+    private long[] current;
+    private long[] previous;
+    private final boolean[] dirty;
+    private boolean forceFull = true;
+
+    // 本帧结果
+    private final int[] rectX = new int[MAX_RECTS];
+    private final int[] rectY = new int[MAX_RECTS];
+    private final int[] rectW = new int[MAX_RECTS];
+    private final int[] rectH = new int[MAX_RECTS];
+    private int rectCount;
+    private boolean full;
+    private int dirtyArea;
+    // 合并时每列上一行尚未封闭的矩形编号
+    private final int[] openRect;
+
+    /**
+     * @param fullRepaintRatio 脏面积占屏幕的比例超过该值时整屏重绘
+     */
+    DirtyTracker(int width, int height, float fullRepaintRatio) {
+        this.width = width;
+        this.height = height;
+        this.cols = (width + TILE - 1) / TILE;
+        this.rows = (height + TILE - 1) / TILE;
+        this.fullRepaintRatio = fullRepaintRatio;
+        this.current = new long[cols * rows];
+        this.previous = new long[cols * rows];
+        this.dirty = new boolean[cols * rows];
+        this.openRect = new int[cols];
+    }
+
+    /**
+     * 开始记录新的一帧
+     */
+    void begin() {
+        long[] t = previous;
+        previous = current;
+        current = t;
+        Arrays.fill(current, 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * 记录一条绘制命令：屏幕空间包围盒 [minX, maxX) x [minY, maxY) 与内容哈希
+     */
+    void add(float minX, float minY, float maxX, float maxY, long hash) {
+        int x0 = Math.max(0, (int) Math.floor(minX) - MARGIN) / TILE;
+        int y0 = Math.max(0, (int) Math.floor(minY) - MARGIN) / TILE;
+        int x1 = Math.min(width - 1, (int) Math.ceil(maxX) + MARGIN) / TILE;
+        int y1 = Math.min(height - 1, (int) Math.ceil(maxY) + MARGIN) / TILE;
+        if (x1 < x0 || y1 < y0) return;
+        long h = mix(hash);
+        for (int ty = y0; ty <= y1; ty++) {
+            int row = ty * cols;
+            for (int tx = x0; tx <= x1; tx++) {
+                current[row + tx] = (current[row + tx] ^ h) * 0x100000001B3L;
+            }
+        }
+    }
+
+    /**
+     * 下一帧强制整屏重绘（如表面内容丢失）
+     */
+    void invalidate() {
+        forceFull = true;
+    }
+
+    /**
+     * 比较本帧与上一帧，生成脏矩形
+     */
+    void finish() {
+        rectCount = 0;
+        dirtyArea = 0;
+        int dirtyTiles = 0;
+        for (int i = 0; i < current.length; i++) {
+            dirty[i] = current[i] != previous[i];
+            if (dirty[i]) dirtyTiles++;
+        }
+        full = forceFull || dirtyTiles * TILE * TILE > fullRepaintRatio * width * height;
+        forceFull = false;
+        if (full) {
+            dirtyArea = width * height;
+            return;
+        }
+        if (dirtyTiles == 0) return;
+        // 每行找连续的脏瓦片段，与上一行同列范围的矩形向下合并
+        Arrays.fill(openRect, -1);
+        boolean overflow = false;
+        for (int ty = 0; ty < rows && !overflow; ty++) {
+            int tx = 0;
+            while (tx < cols) {
+                if (!dirty[ty * cols + tx]) {
+                    tx++;
+                    continue;
+                }
+                int start = tx;
+                while (tx < cols && dirty[ty * cols + tx]) tx++;
+                int x = start * TILE, w = Math.min(width, tx * TILE) - x;
+                int open = openRect[start];
+                if (open >= 0 && rectX[open] == x && rectW[open] == w && rectY[open] + rectH[open] == ty * TILE) {
+                    rectH[open] = Math.min(height, (ty + 1) * TILE) - rectY[open];
+                    continue;
+                }
+                if (rectCount == MAX_RECTS) {
+                    overflow = true;
+                    break;
+                }
+                int id = rectCount++;
+                rectX[id] = x;
+                rectY[id] = ty * TILE;
+                rectW[id] = w;
+                rectH[id] = Math.min(height, (ty + 1) * TILE) - rectY[id];
+                openRect[start] = id;
+            }
+        }
+        if (overflow) {
+            mergeToBounds();
+        }
+        for (int i = 0; i < rectCount; i++) {
+            dirtyArea += rectW[i] * rectH[i];
+        }
+        if (dirtyArea > fullRepaintRatio * width * height) {
+            full = true;
+            rectCount = 0;
+            dirtyArea = width * height;
+        }
+    }
+
+    private void mergeToBounds() {
+        int minTx = cols, minTy = rows, maxTx = -1, maxTy = -1;
+        for (int ty = 0; ty < rows; ty++) {
+            for (int tx = 0; tx < cols; tx++) {
+                if (!dirty[ty * cols + tx]) continue;
+                minTx = Math.min(minTx, tx);
+                minTy = Math.min(minTy, ty);
+                maxTx = Math.max(maxTx, tx);
+                maxTy = Math.max(maxTy, ty);
+            }
+        }
+        rectCount = 1;
+        rectX[0] = minTx * TILE;
+        rectY[0] = minTy * TILE;
+        rectW[0] = Math.min(width, (maxTx + 1) * TILE) - rectX[0];
+        rectH[0] = Math.min(height, (maxTy + 1) * TILE) - rectY[0];
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 本帧是否需要整屏重绘
+     */
+    boolean isFull() {
+        return full;
+    }
+
+    int getRectCount() {
+        return rectCount;
+    }
+
+    int getRectX(int i) {
+        return rectX[i];
+    }
+
+    int getRectY(int i) {
+        return rectY[i];
+    }
+
+    int getRectW(int i) {
+        return rectW[i];
+    }
+
+    int getRectH(int i) {
+        return rectH[i];
+    }
+
+    /**
+     * 本帧需要重绘的像素数
+     */
+    int getDirtyArea() {
+        return dirtyArea;
+    }
+}
@@ -0,0 +1,418 @@
+package com.gameengine.graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+import java.util.Arrays;
+
+/**
+ * 绘制命令缓冲区：每个基本图元记为一个操作码、一个打包的 ARGB 颜色和若干浮点参数，
+ * 写入可复用的扁平数组，每帧 reset 后重新填充，容量只在首次超出时增长。
+ * 绘制时在一个循环里解码执行；颜色对象按 ARGB 缓存在直接映射表中，稳态不分配对象。
+ * 录制完成后可按 (图元类型, 颜色) 分批：只有不与中间批次重叠的图元才会提前并入同键批次，
+ * 因而画家顺序在可见结果上保持不变；同色不透明矩形合并为一个 Path2D 一次填充。
+ */
+final class DrawCommandBuffer {
+    static final byte OP_RECT = 0;
+    static final byte OP_CIRCLE = 1;
+    static final byte OP_LINE = 2;
+    static final byte OP_TEXT = 3;
+    static final byte OP_CUSTOM = 4;
+
+    private static final int COLOR_CACHE_SIZE = 256;
+    // 分批时向前查找同键批次的最大距离，限制最坏情况下的开销
+    private static final int BATCH_LOOKBACK = 64;
+
+    /**
+     * 无法打包成基本图元的绘制（如粒子层），按提交顺序穿插执行
+     */
+    interface Custom {
+        void draw(Graphics2D g);
+
+        /**
+         * 向脏矩形跟踪器报告本次绘制覆盖的区域与内容哈希
+         */
+        void track(DirtyTracker tracker);
+
+        /**
+         * 软件光栅化前在调用线程执行一次，准备 composite 要读取的像素
+         */
+        void prepareRaster();
+
+        /**
+         * 软件光栅化：把本层在 [x0, x1) x [y0, y1) 内的内容以 src-over 合成到不透明的 RGB 帧缓冲，
+         * 各瓦片会在不同线程并发调用，只能读取 prepareRaster 准备好的数据
+         */
+        void composite(int[] dst, int stride, int x0, int y0, int x1, int y1);
+    }
+
+    private byte[] ops = new byte[256];
+    private int[] colors = new int[256];
+    private float[] args = new float[1024];
+    private Object[] refs = new Object[16];
+    // 每条命令的参数与引用起点，分批后乱序执行时定位参数
+    private int[] argStart = new int[256];
+    private int[] refStart = new int[256];
+    private int opCount;
+    private int argCount;
+    private int refCount;
+
+    // 分批结果：每批的键、包围盒与成员链表（按提交顺序）
+    private byte[] batchOp = new byte[64];
+    private int[] batchColor = new int[64];
+    private int[] batchHead = new int[64];
+    private int[] batchTail = new int[64];
+    private int[] batchSize = new int[64];
+    private float[] batchBounds = new float[256];
+    private int[] nextInBatch = new int[256];
+    private int batchCount;
+    private boolean batched;
+    private final Path2D.Float path = new Path2D.Float();
+    private float boundMinX, boundMinY, boundMaxX, boundMaxY;
+
+    private final int[] cachedArgb = new int[COLOR_CACHE_SIZE];
+    private final Color[] cachedColors = new Color[COLOR_CACHE_SIZE];
+
+    /**
+     * 清空命令，保留已分配的容量
+     */
+    void reset() {
+        opCount = 0;
+        argCount = 0;
+        Arrays.fill(refs, 0, refCount, null);
+        refCount = 0;
+        batchCount = 0;
+        batched = false;
+    }
+
+    void rect(float x, float y, float w, float h, int argb) {
+        beginOp(OP_RECT, argb, 4);
+        args[argCount++] = x;
+        args[argCount++] = y;
+        args[argCount++] = w;
+        args[argCount++] = h;
+    }
+
+    void circle(float x, float y, float radius, int argb) {
+        beginOp(OP_CIRCLE, argb, 3);
+        args[argCount++] = x;
+        args[argCount++] = y;
+        args[argCount++] = radius;
+    }
+
+    void line(float x1, float y1, float x2, float y2, int argb) {
+        beginOp(OP_LINE, argb, 4);
+        args[argCount++] = x1;
+        args[argCount++] = y1;
+        args[argCount++] = x2;
+        args[argCount++] = y2;
+    }
+
+    void text(float x, float y, String text, int size, int argb) {
+        beginOp(OP_TEXT, argb, 3);
+        args[argCount++] = x;
+        args[argCount++] = y;
+        args[argCount++] = size;
+        addRef(text);
+    }
+
+    void custom(Custom drawable) {
+        beginOp(OP_CUSTOM, 0, 0);
+        addRef(drawable);
+    }
+
+    private void beginOp(byte op, int argb, int argN) {
+        if (opCount == ops.length) {
+            ops = Arrays.copyOf(ops, opCount * 2);
+            colors = Arrays.copyOf(colors, opCount * 2);
+            argStart = Arrays.copyOf(argStart, opCount * 2);
+            refStart = Arrays.copyOf(refStart, opCount * 2);
+        }
+        if (argCount + argN > args.length) {
+            args = Arrays.copyOf(args, Math.max(args.length * 2, argCount + argN));
+        }
+        ops[opCount] = op;
+        colors[opCount] = argb;
+        argStart[opCount] = argCount;
+        refStart[opCount] = refCount;
+        opCount++;
+    }
+
+    private void addRef(Object ref) {
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refCount * 2);
+        }
+        refs[refCount++] = ref;
+    }
+
+    /**
+     * 把命令按 (图元类型, 颜色) 分批。每条命令向前查找同键批次，途经的批次与它的包围盒
+     * 都不相交时才并入，否则新开一批；自定义绘制的包围盒视为整屏，不会被越过。
+     * 录制结束后在游戏循环线程调用，此后 execute 按批次执行
+     */
+    void sortBatches() {
+        batchCount = 0;
+        if (nextInBatch.length < opCount) {
+            nextInBatch = new int[ops.length];
+        }
+        for (int i = 0; i < opCount; i++) {
+            byte op = ops[i];
+            int argb = colors[i];
+            bounds(i);
+            int target = -1;
+            if (op != OP_CUSTOM) {
+                int stop = Math.max(0, batchCount - BATCH_LOOKBACK);
+                for (int b = batchCount - 1; b >= stop; b--) {
+                    if (batchOp[b] == op && batchColor[b] == argb) {
+                        target = b;
+                        break;
+                    }
+                    int k = b * 4;
+                    if (boundMinX < batchBounds[k + 2] && batchBounds[k] < boundMaxX
+                            && boundMinY < batchBounds[k + 3] && batchBounds[k + 1] < boundMaxY) {
+                        break;
+                    }
+                }
+            }
+            nextInBatch[i] = -1;
+            if (target >= 0) {
+                nextInBatch[batchTail[target]] = i;
+                batchTail[target] = i;
+                batchSize[target]++;
+                int k = target * 4;
+                batchBounds[k] = Math.min(batchBounds[k], boundMinX);
+                batchBounds[k + 1] = Math.min(batchBounds[k + 1], boundMinY);
+                batchBounds[k + 2] = Math.max(batchBounds[k + 2], boundMaxX);
+                batchBounds[k + 3] = Math.max(batchBounds[k + 3], boundMaxY);
+            } else {
+                newBatch(op, argb, i);
+            }
+        }
+        batched = true;
+    }
+
+    private void newBatch(byte op, int argb, int first) {
+        if (batchCount == batchOp.length) {
+            int cap = batchCount * 2;
+            batchOp = Arrays.copyOf(batchOp, cap);
+            batchColor = Arrays.copyOf(batchColor, cap);
+            batchHead = Arrays.copyOf(batchHead, cap);
+            batchTail = Arrays.copyOf(batchTail, cap);
+            batchSize = Arrays.copyOf(batchSize, cap);
+            batchBounds = Arrays.copyOf(batchBounds, cap * 4);
+        }
+        int b = batchCount++;
+        batchOp[b] = op;
+        batchColor[b] = argb;
+        batchHead[b] = first;
+        batchTail[b] = first;
+        batchSize[b] = 1;
+        int k = b * 4;
+        batchBounds[k] = boundMinX;
+        batchBounds[k + 1] = boundMinY;
+        batchBounds[k + 2] = boundMaxX;
+        batchBounds[k + 3] = boundMaxY;
+    }
+
+    /**
+     * 命令 i 的屏幕包围盒写入 boundMin/Max；文本不在录制端测量，按每字符一个字号宽估计
+     */
+    private void bounds(int i) {
+        int a = argStart[i];
+        switch (ops[i]) {
+            case OP_RECT:
+                boundMinX = args[a];
+                boundMinY = args[a + 1];
+                boundMaxX = args[a] + args[a + 2];
+                boundMaxY = args[a + 1] + args[a + 3];
+                break;
+            case OP_CIRCLE: {
+                float radius = args[a + 2];
+                boundMinX = args[a] - radius;
+                boundMinY = args[a + 1] - radius;
+                boundMaxX = args[a] + radius;
+                boundMaxY = args[a + 1] + radius;
+                break;
+            }
+            case OP_LINE:
+                boundMinX = Math.min(args[a], args[a + 2]);
+                boundMinY = Math.min(args[a + 1], args[a + 3]);
+                boundMaxX = Math.max(args[a], args[a + 2]);
+                boundMaxY = Math.max(args[a + 1], args[a + 3]);
+                break;
+            case OP_TEXT: {
+                float size = args[a + 2];
+                float halfWidth = ((String) refs[refStart[i]]).length() * size * 0.5f;
+                boundMinX = args[a] - halfWidth;
+                boundMinY = args[a + 1] - size;
+                boundMaxX = args[a] + halfWidth;
+                boundMaxY = args[a + 1] + size * 0.5f;
+                break;
+            }
+            default:
+                boundMinX = Float.NEGATIVE_INFINITY;
+                boundMinY = Float.NEGATIVE_INFINITY;
+                boundMaxX = Float.POSITIVE_INFINITY;
+                boundMaxY = Float.POSITIVE_INFINITY;
+        }
+        // 抗锯齿会画到边界外一个像素，放宽后再判断相交
+        boundMinX -= 1;
+        boundMinY -= 1;
+        boundMaxX += 1;
+        boundMaxY += 1;
+    }
+
+    /**
+     * 执行所有命令，文本与圆分别交给绘制线程共享的 TextRenderer 与 ShapeSprites。
+     * 分批后每批只设置一次颜色
+     */
+    void execute(Graphics2D g, TextRenderer textRenderer, ShapeSprites sprites) {
+        int currentArgb = 0;
+        boolean hasColor = false;
+        int count = batched ? batchCount : opCount;
+        for (int b = 0; b < count; b++) {
+            int first = batched ? batchHead[b] : b;
+            byte op = ops[first];
+            if (op == OP_CUSTOM) {
+                ((Custom) refs[refStart[first]]).draw(g);
+                hasColor = false;
+                continue;
+            }
+            int argb = colors[first];
+            if (op != OP_TEXT && (!hasColor || argb != currentArgb)) {
+                g.setColor(colorFor(argb));
+                currentArgb = argb;
+                hasColor = true;
+            }
+            if (!batched) {
+                drawOne(g, first, textRenderer, sprites);
+            } else if (op == OP_RECT && batchSize[b] > 1 && (argb >>> 24) == 0xFF) {
+                // 不透明时重叠部分合并填充与逐个填充结果相同
+                path.reset();
+                for (int i = first; i >= 0; i = nextInBatch[i]) {
+                    int a = argStart[i];
+                    float x = (int) args[a], y = (int) args[a + 1];
+                    float x2 = x + (int) args[a + 2], y2 = y + (int) args[a + 3];
+                    path.moveTo(x, y);
+                    path.lineTo(x2, y);
+                    path.lineTo(x2, y2);
+                    path.lineTo(x, y2);
+                    path.closePath();
+                }
+                g.fill(path);
+            } else {
+                for (int i = first; i >= 0; i = nextInBatch[i]) {
+                    drawOne(g, i, textRenderer, sprites);
+                }
+            }
+        }
+    }
+
+    private void drawOne(Graphics2D g, int i, TextRenderer textRenderer, ShapeSprites sprites) {
+        int a = argStart[i];
+        switch (ops[i]) {
+            case OP_RECT:
+                g.fillRect((int) args[a], (int) args[a + 1], (int) args[a + 2], (int) args[a + 3]);
+                break;
+            case OP_CIRCLE: {
+                float radius = args[a + 2];
+                int x = (int) (args[a] - radius), y = (int) (args[a + 1] - radius), d = (int) (radius * 2);
+                if (!sprites.drawCircle(g, x, y, d, colors[i])) {
+                    g.fillOval(x, y, d, d);
+                }
+                break;
+            }
+            case OP_LINE:
+                g.drawLine((int) args[a], (int) args[a + 1], (int) args[a + 2], (int) args[a + 3]);
+                break;
+            case OP_TEXT:
+                textRenderer.draw(g, args[a], args[a + 1], (String) refs[refStart[i]], (int) args[a + 2], colors[i]);
+                break;
+            default:
+                throw new IllegalStateException("unknown draw op " + ops[i]);
+        }
+    }
+
+    /**
+     * 把每条命令的屏幕包围盒与内容哈希按提交顺序交给脏矩形跟踪器
+     */
+    void track(DirtyTracker tracker) {
+        for (int i = 0; i < opCount; i++) {
+            byte op = ops[i];
+            if (op == OP_CUSTOM) {
+                ((Custom) refs[refStart[i]]).track(tracker);
+                continue;
+            }
+            int argN = op == OP_RECT || op == OP_LINE ? 4 : 3;
+            long hash = hashArgs(op * 31L + colors[i], argStart[i], argN);
+            if (op == OP_TEXT) {
+                hash = hash * 31 + refs[refStart[i]].hashCode();
+            }
+            bounds(i);
+            tracker.add(boundMinX, boundMinY, boundMaxX, boundMaxY, hash);
+        }
+    }
+
+    private long hashArgs(long hash, int from, int n) {
+        for (int k = from; k < from + n; k++) {
+            hash = hash * 0x100000001B3L + Float.floatToIntBits(args[k]);
+        }
+        return hash;
+    }
+
+    private Color colorFor(int argb) {
+        int slot = (argb * 0x9E3779B9) >>> 24;
+        Color color = cachedColors[slot];
+        if (color == null || cachedArgb[slot] != argb) {
+            color = new Color(argb, true);
+            cachedColors[slot] = color;
+            cachedArgb[slot] = argb;
+        }
+        return color;
+    }
+
+    /**
+     * 把 [0,1] 的浮点分量打包为 ARGB，取整方式与 java.awt.Color 一致
+     */
+    static int packColor(float r, float g, float b, float a) {
+        return (channel(a) << 24) | (channel(r) << 16) | (channel(g) << 8) | channel(b);
+    }
+
+    private static int channel(float v) {
+        int c = (int) (v * 255 + 0.5f);
+        return c < 0 ? 0 : (c > 255 ? 255 : c);
+    }
+
+    /**
+     * 当前帧的命令数
+     */
+    int size() {
+        return opCount;
+    }
+
+    /**
+     * 以下按提交顺序读取第 i 条命令，供软件光栅化使用
+     */
+    byte op(int i) {
+        return ops[i];
+    }
+
+    int color(int i) {
+        return colors[i];
+    }
+
+    float arg(int i, int k) {
+        return args[argStart[i] + k];
+    }
+
+    Object ref(int i) {
+        return refs[refStart[i]];
+    }
+
+    /**
+     * 分批后的批次数，即执行时的状态切换次数上限；未分批时等于命令数
+     */
+    int getBatchCount() {
+        return batched ? batchCount : opCount;
+    }
+}
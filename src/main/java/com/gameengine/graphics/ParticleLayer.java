@@ -0,0 +1,106 @@
+package com.gameengine.graphics;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * 粒子层：把一帧的所有粒子直接写进一张预乘 ARGB 图像，整张图作为一次绘制提交。
+ * 只清除和合成写过粒子的包围区域。
+ */
+final class ParticleLayer implements DrawCommandBuffer.Custom {
+    private final int width;
+    private final int height;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private int dirtyMinX, dirtyMinY, dirtyMaxX = -1, dirtyMaxY = -1;
+    private long serial;
+
+    ParticleLayer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * 开始新的一帧，只清除上一次写过的区域
+     */
+    void begin() {
+        for (int y = dirtyMinY; y <= dirtyMaxY; y++) {
+            Arrays.fill(pixels, y * width + dirtyMinX, y * width + dirtyMaxX + 1, 0);
+        }
+        dirtyMinX = width;
+        dirtyMinY = height;
+        dirtyMaxX = -1;
+        dirtyMaxY = -1;
+    }
+
+    /**
+     * 写入方形粒子：(xs[i], ys[i]) 为中心，sizes[i] 为边长，argb[i] 为非预乘颜色
+     */
+    void splat(float[] xs, float[] ys, int[] sizes, int[] argb, int count) {
+        for (int i = 0; i < count; i++) {
+            int c = argb[i];
+            int a = c >>> 24;
+            if (a == 0) continue;
+            int s = sizes[i];
+            int x0 = (int) (xs[i] - s * 0.5f), y0 = (int) (ys[i] - s * 0.5f);
+            int x1 = Math.min(width, x0 + s), y1 = Math.min(height, y0 + s);
+            x0 = Math.max(0, x0);
+            y0 = Math.max(0, y0);
+            if (x0 >= x1 || y0 >= y1) continue;
+            // 预乘后按 src-over 叠加
+            int r = ((c >> 16) & 0xFF) * a / 255, g = ((c >> 8) & 0xFF) * a / 255, b = (c & 0xFF) * a / 255;
+            int inv = 255 - a;
+            for (int y = y0; y < y1; y++) {
+                int row = y * width;
+                for (int x = x0; x < x1; x++) {
+                    int d = pixels[row + x];
+                    int da = a + (d >>> 24) * inv / 255;
+                    int dr = r + ((d >> 16) & 0xFF) * inv / 255;
+                    int dg = g + ((d >> 8) & 0xFF) * inv / 255;
+                    int db = b + (d & 0xFF) * inv / 255;
+                    pixels[row + x] = (da << 24) | (dr << 16) | (dg << 8) | db;
+                }
+            }
+            dirtyMinX = Math.min(dirtyMinX, x0);
+            dirtyMinY = Math.min(dirtyMinY, y0);
+            dirtyMaxX = Math.max(dirtyMaxX, x1 - 1);
+            dirtyMaxY = Math.max(dirtyMaxY, y1 - 1);
+        }
+    }
+
+    /**
+     * 粒子每帧都在变化，写过的区域总是报告为新内容
+     */
+    @Override
+    public void track(DirtyTracker tracker) {
+        if (dirtyMaxX < dirtyMinX || dirtyMaxY < dirtyMinY) return;
+        tracker.add(dirtyMinX, dirtyMinY, dirtyMaxX + 1, dirtyMaxY + 1, ++serial);
+    }
+
+    @Override
+    public void prepareRaster() {
+        // 粒子在录制时已写入像素
+    }
+
+    @Override
+    public void composite(int[] dst, int stride, int x0, int y0, int x1, int y1) {
+        x0 = Math.max(x0, dirtyMinX);
+        y0 = Math.max(y0, dirtyMinY);
+        x1 = Math.min(x1, dirtyMaxX + 1);
+        y1 = Math.min(y1, dirtyMaxY + 1);
+        if (x0 >= x1 || y0 >= y1) return;
+        SoftwareRasterizer.compositePremultiplied(pixels, y0 * width + x0, width,
+                dst, y0 * stride + x0, stride, x1 - x0, y1 - y0);
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        if (dirtyMaxX < dirtyMinX || dirtyMaxY < dirtyMinY) return;
+        int x1 = dirtyMaxX + 1, y1 = dirtyMaxY + 1;
+        g.drawImage(image, dirtyMinX, dirtyMinY, x1, y1, dirtyMinX, dirtyMinY, x1, y1, null);
+    }
+}
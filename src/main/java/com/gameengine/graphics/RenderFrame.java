@@ -0,0 +1,38 @@
+package com.gameengine.graphics;
+
+/**
+ * 一帧的全部绘制数据：基本图元命令与该帧独占的粒子层。
+ * 三缓冲的每个槽位各持有一个，生产者与绘制线程永远不会同时访问同一帧。
+ */
+final class RenderFrame {
+    final DrawCommandBuffer commands = new DrawCommandBuffer();
+    private final int width;
+    private final int height;
+    private ParticleLayer particles;
+    private boolean particlesQueued;
+
+    RenderFrame(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    void reset() {
+        commands.reset();
+        particlesQueued = false;
+    }
+
+    /**
+     * 本帧的粒子层，首次使用时创建并把它作为一条命令排入当前位置
+     */
+    ParticleLayer particles() {
+        if (particles == null) {
+            particles = new ParticleLayer(width, height);
+        }
+        if (!particlesQueued) {
+            particles.begin();
+            commands.custom(particles);
+            particlesQueued = true;
+        }
+        return particles;
+    }
+}
@@ -7,21 +7,85 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
 
+/**
+ * 基于 Swing 的渲染器。被动模式下 endFrame 请求 repaint，由事件分发线程择机绘制；
+ * 主动模式下用 Canvas + BufferStrategy，endFrame 在调用线程立即绘制并翻转/拷贝到屏幕，
+ * 呈现时机由游戏循环控制，并记录每帧的呈现耗时。
+ * 启用脏矩形后，只重绘并呈现与上一帧相比发生变化的屏幕区域，变化过大时整屏重绘。
+ * 软件模式同样使用 Canvas 呈现，但画面由多线程的 SoftwareRasterizer 写入 int[] 帧缓冲，
+ * 不经过 Java2D 光栅化。
+ */
 public class Renderer extends JFrame {
+    private static final int DEFAULT_SPRITE_PIXELS = 1 << 20;
+
     private int width;
     private int height;
     private String title;
     private GamePanel gamePanel;
     private InputManager inputManager;
+    private final boolean activeRendering;
+    private Canvas canvas;
+    private BufferStrategy bufferStrategy;
+    private long lastPresentNanos;
+    private long presentedFrames;
+
+    // 三缓冲帧提交：游戏循环写后缓冲并发布，绘制线程总是读最新的完整帧，互不阻塞
+    private final TripleBuffer<RenderFrame> frames;
+    // 字体、字形图集与排版缓存，只在绘制线程使用
+    private final TextRenderer textRenderer = new TextRenderer();
+    // 预先栅格化的抗锯齿圆，只在绘制线程使用
+    private final ShapeSprites shapeSprites = new ShapeSprites(DEFAULT_SPRITE_PIXELS);
+    // 静态层：内容只在所属对象或版本变化时重新录制，每帧一次整图拷贝
+    private final StaticLayer staticLayer;
+    private Object staticOwner;
+    private int staticVersion;
+    private DrawCommandBuffer staticCommands;
+
+    // 脏矩形：只在游戏循环线程使用，为 null 时每帧整屏重绘
+    private DirtyTracker dirtyTracker;
+    // 主动模式下保留的整屏画面，脏区域在其上增量重绘后拷贝到后台缓冲
+    private VolatileImage sceneImage;
+    // 后台缓冲在 show 之后是否保留内容，保留时只需拷贝脏区域
+    private boolean backBufferPreserved;
+    private int lastDirtyArea;
+    private int lastDirtyRects;
+    // 按 (图元类型, 颜色) 分批以减少 Graphics2D 状态切换
+    private boolean batching = true;
+    private int lastBatchCount;
+    private int lastPrimitiveCount;
+    // 软件光栅化后端，首次呈现时按 softwareThreads 创建
+    private final boolean softwareBackend;
+    private int softwareThreads = Runtime.getRuntime().availableProcessors();
+    private SoftwareRasterizer softwareRasterizer;
     
     public Renderer(int width, int height, String title) {
+        this(width, height, title, false);
+    }
+
+    /**
+     * @param activeRendering 为 true 时使用 Canvas + BufferStrategy 主动渲染
+     */
+    public Renderer(int width, int height, String title, boolean activeRendering) {
+        this(width, height, title, activeRendering ? "active" : "passive");
+    }
+
+    /**
+     * @param backend active（Canvas + BufferStrategy）、passive（Swing repaint）或
+     *                software（多线程软件光栅化，经 Canvas 呈现）
+     */
+    public Renderer(int width, int height, String title, String backend) {
+        this.activeRendering = !"passive".equals(backend);
         this.width = width;
         this.height = height;
         this.title = title;
         this.inputManager = InputManager.getInstance();
+        this.frames = new TripleBuffer<>(new RenderFrame(width, height), new RenderFrame(width, height),
+                new RenderFrame(width, height));
+        this.staticLayer = new StaticLayer(width, height, textRenderer, shapeSprites);
+        this.softwareBackend = "software".equals(backend);
         
         initialize();
     }
@@ -33,16 +97,35 @@ public class Renderer extends JFrame {
         setLocationRelativeTo(null);
         setResizable(false);
         
-        gamePanel = new GamePanel();
-        add(gamePanel);
+        Component surface;
+        if (activeRendering) {
+            canvas = new Canvas();
+            canvas.setPreferredSize(new Dimension(width, height));
+            // 画面完全由 present 负责，忽略系统的重绘请求
+            canvas.setIgnoreRepaint(true);
+            surface = canvas;
+        } else {
+            gamePanel = new GamePanel();
+            surface = gamePanel;
+        }
+        add(surface);
         pack();
-        setupInput();
+        setupInput(surface);
         
         setVisible(true);
+        if (activeRendering) {
+            // BufferStrategy 只能在组件可显示后创建
+            canvas.createBufferStrategy(2);
+            bufferStrategy = canvas.getBufferStrategy();
+            BufferCapabilities caps = bufferStrategy.getCapabilities();
+            backBufferPreserved = !caps.isPageFlipping()
+                    || caps.getFlipContents() == BufferCapabilities.FlipContents.COPIED;
+        }
+        surface.requestFocusInWindow();
     }
     
-    private void setupInput() {
-        gamePanel.addKeyListener(new KeyAdapter() {
+    private void setupInput(Component surface) {
+        surface.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
                 inputManager.onKeyPressed(e.getKeyCode());
@@ -54,7 +137,7 @@ public class Renderer extends JFrame {
             }
         });
         
-        gamePanel.addMouseListener(new MouseAdapter() {
+        surface.addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
                 inputManager.onMousePressed(e.getButton());
@@ -66,39 +149,350 @@ public class Renderer extends JFrame {
             }
         });
         
-        gamePanel.addMouseMotionListener(new MouseAdapter() {
+        surface.addMouseMotionListener(new MouseAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
                 inputManager.onMouseMoved(e.getX(), e.getY());
             }
         });
         
-        gamePanel.setFocusable(true);
-        gamePanel.requestFocusInWindow();
+        surface.setFocusable(true);
     }
     
     public void beginFrame() {
-        gamePanel.clear();
+        frames.back().reset();
     }
     
+    /**
+     * 发布本帧并请求重绘，发布后不能再修改本帧
+     */
     public void endFrame() {
-        gamePanel.repaint();
+        DrawCommandBuffer commands = frames.back().commands;
+        if (batching) {
+            commands.sortBatches();
+        }
+        lastPrimitiveCount = commands.size();
+        lastBatchCount = commands.getBatchCount();
+        if (dirtyTracker != null) {
+            dirtyTracker.begin();
+            commands.track(dirtyTracker);
+            dirtyTracker.finish();
+            lastDirtyArea = dirtyTracker.getDirtyArea();
+            lastDirtyRects = dirtyTracker.isFull() ? 1 : dirtyTracker.getRectCount();
+        } else {
+            lastDirtyArea = width * height;
+            lastDirtyRects = 1;
+        }
+        frames.publish();
+        if (activeRendering) {
+            present();
+        } else if (dirtyTracker == null || dirtyTracker.isFull()) {
+            gamePanel.repaint();
+        } else {
+            // RepaintManager 会合并尚未绘制的区域，绘制时以最新帧填充它们的并集
+            for (int i = 0; i < dirtyTracker.getRectCount(); i++) {
+                gamePanel.repaint(dirtyTracker.getRectX(i), dirtyTracker.getRectY(i),
+                        dirtyTracker.getRectW(i), dirtyTracker.getRectH(i));
+            }
+        }
+    }
+
+    /**
+     * 设置软件光栅化的工作线程数，非 software 模式下忽略
+     */
+    public void setSoftwareThreads(int threads) {
+        softwareThreads = Math.max(1, threads);
+        if (softwareRasterizer == null) return;
+        // 已在运行时丢弃旧线程池与帧缓冲，下一帧以新线程数重建并整屏光栅化
+        softwareRasterizer.shutdown();
+        softwareRasterizer = null;
+    }
+
+    /**
+     * 设置圆形精灵缓存的总像素预算，0 表示每次直接 fillOval
+     */
+    public void setShapeSpriteBudget(int pixels) {
+        shapeSprites.setPixelBudget(pixels);
+    }
+
+    /**
+     * 启用或关闭按 (图元类型, 颜色) 分批绘制
+     */
+    public void setBatching(boolean enabled) {
+        this.batching = enabled;
+    }
+
+    /**
+     * 启用或关闭脏矩形重绘
+     *
+     * @param fullRepaintRatio 脏面积占屏幕的比例超过该值时整屏重绘
+     */
+    public void setDirtyRectangles(boolean enabled, float fullRepaintRatio) {
+        dirtyTracker = enabled ? new DirtyTracker(width, height, fullRepaintRatio) : null;
+    }
+
+    /**
+     * 主动渲染：把最新帧画到后台缓冲并立即显示，内容丢失时重画
+     */
+    private void present() {
+        // 窗口关闭后同一次循环仍可能调用 endFrame
+        if (!canvas.isDisplayable()) return;
+        long start = System.nanoTime();
+        frames.acquire();
+        RenderFrame frame = frames.front();
+        boolean shown;
+        if (softwareBackend) {
+            shown = presentSoftware(frame);
+        } else if (dirtyTracker == null) {
+            presentFull(frame);
+            shown = true;
+        } else {
+            shown = presentDirty(frame);
+        }
+        // 画面无变化时没有显示任何内容，不计入呈现帧数与耗时
+        if (!shown) return;
+        // 部分平台的窗口系统会缓冲绘制命令，同步后计时才反映真实呈现
+        Toolkit.getDefaultToolkit().sync();
+        lastPresentNanos = System.nanoTime() - start;
+        presentedFrames++;
+    }
+
+    private void presentFull(RenderFrame frame) {
+        do {
+            do {
+                Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
+                try {
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, width, height);
+                    paintFrame(g, frame);
+                } finally {
+                    g.dispose();
+                }
+            } while (bufferStrategy.contentsRestored());
+            bufferStrategy.show();
+        } while (bufferStrategy.contentsLost());
+    }
+
+    /**
+     * 脏矩形呈现：在保留的整屏画面上只重绘脏区域，再把这些区域拷贝到后台缓冲。
+     * 画面或后台缓冲内容丢失时退回整屏，并让下一帧也整屏重绘。没有脏区域时不显示，返回 false
+     */
+    private boolean presentDirty(RenderFrame frame) {
+        GraphicsConfiguration gc = canvas.getGraphicsConfiguration();
+        boolean full = dirtyTracker.isFull();
+        if (sceneImage == null || sceneImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+            sceneImage = gc.createCompatibleVolatileImage(width, height);
+            full = true;
+        } else if (sceneImage.contentsLost()) {
+            full = true;
+        }
+        if (!full && dirtyTracker.getRectCount() == 0) return false;
+
+        Graphics2D sg = sceneImage.createGraphics();
+        try {
+            if (full) {
+                sg.setColor(Color.BLACK);
+                sg.fillRect(0, 0, width, height);
+                paintFrame(sg, frame);
+            } else {
+                for (int i = 0; i < dirtyTracker.getRectCount(); i++) {
+                    int x = dirtyTracker.getRectX(i), y = dirtyTracker.getRectY(i);
+                    int w = dirtyTracker.getRectW(i), h = dirtyTracker.getRectH(i);
+                    sg.setClip(x, y, w, h);
+                    sg.setColor(Color.BLACK);
+                    sg.fillRect(x, y, w, h);
+                    paintFrame(sg, frame);
+                }
+            }
+        } finally {
+            sg.dispose();
+        }
+
+        blitToBackBuffer(sceneImage, full);
+        if (sceneImage.contentsLost()) {
+            dirtyTracker.invalidate();
+        }
+        return true;
+    }
+
+    /**
+     * 软件呈现：光栅化器只重画脏矩形覆盖的瓦片（或全部瓦片），再把对应区域拷贝到后台缓冲。
+     * 没有脏区域时不显示，返回 false
+     */
+    private boolean presentSoftware(RenderFrame frame) {
+        boolean full = dirtyTracker == null || dirtyTracker.isFull() || softwareRasterizer == null;
+        if (softwareRasterizer == null) {
+            softwareRasterizer = new SoftwareRasterizer(width, height, softwareThreads, textRenderer);
+        }
+        if (!full && dirtyTracker.getRectCount() == 0) return false;
+        Image image = softwareRasterizer.render(frame.commands, full ? null : dirtyTracker);
+        blitToBackBuffer(image, full);
+        return true;
+    }
+
+    /**
+     * 把整屏画面拷贝到后台缓冲并显示；copyAll 为 false 时只拷贝本帧的脏矩形，
+     * 后台缓冲不保留内容或内容丢失时退回整屏拷贝
+     */
+    private void blitToBackBuffer(Image source, boolean copyAll) {
+        copyAll = copyAll || !backBufferPreserved;
+        do {
+            do {
+                Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
+                try {
+                    if (copyAll) {
+                        g.drawImage(source, 0, 0, null);
+                    } else {
+                        for (int i = 0; i < dirtyTracker.getRectCount(); i++) {
+                            int x = dirtyTracker.getRectX(i), y = dirtyTracker.getRectY(i);
+                            int x2 = x + dirtyTracker.getRectW(i), y2 = y + dirtyTracker.getRectH(i);
+                            g.drawImage(source, x, y, x2, y2, x, y, x2, y2, null);
+                        }
+                    }
+                } finally {
+                    g.dispose();
+                }
+                if (bufferStrategy.contentsRestored()) copyAll = true;
+            } while (bufferStrategy.contentsRestored());
+            bufferStrategy.show();
+            if (bufferStrategy.contentsLost()) copyAll = true;
+        } while (bufferStrategy.contentsLost());
+    }
+
+    private void paintFrame(Graphics2D g, RenderFrame frame) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        frame.commands.execute(g, textRenderer, shapeSprites);
+    }
+
+    /**
+     * 最近一次实际呈现的耗时（纳秒）：主动模式为绘制到后台缓冲并显示的时间，被动模式为 paintComponent 的绘制时间。
+     * 脏矩形模式下画面无变化的帧不显示，也不更新该值
+     */
+    public long getLastPresentNanos() {
+        return lastPresentNanos;
+    }
+
+    /**
+     * 累计实际显示到屏幕的帧数
+     */
+    public long getPresentedFrames() {
+        return presentedFrames;
+    }
+
+    /**
+     * 上一帧重绘的像素数，整屏重绘时为屏幕面积
+     */
+    public int getLastDirtyArea() {
+        return lastDirtyArea;
+    }
+
+    /**
+     * 上一帧重绘的矩形数，整屏重绘记为 1
+     */
+    public int getLastDirtyRects() {
+        return lastDirtyRects;
+    }
+
+    public boolean isSoftwareRendering() {
+        return softwareBackend;
+    }
+
+    public boolean isActiveRendering() {
+        return activeRendering;
     }
     
+    /**
+     * 开始录制静态层。owner 与 version 都与当前静态层相同时返回 false，无需重绘静态内容；
+     * 返回 true 时此后的绘制调用写入静态层，直到 endStaticLayer
+     */
+    public boolean beginStaticLayer(Object owner, int version) {
+        if (owner == staticOwner && version == staticVersion) return false;
+        staticOwner = owner;
+        staticVersion = version;
+        staticCommands = new DrawCommandBuffer();
+        return true;
+    }
+
+    /**
+     * 结束录制并把静态内容交给绘制线程栅格化
+     */
+    public void endStaticLayer() {
+        if (staticCommands == null) return;
+        if (batching) {
+            staticCommands.sortBatches();
+        }
+        staticLayer.publish(staticCommands);
+        staticCommands = null;
+    }
+
+    /**
+     * 强制下一次 beginStaticLayer 重新录制
+     */
+    public void invalidateStaticLayer() {
+        staticOwner = null;
+    }
+
+    /**
+     * 在本帧当前位置拷贝静态层
+     */
+    public void drawStaticLayer() {
+        frames.back().commands.custom(staticLayer);
+    }
+
+    private DrawCommandBuffer target() {
+        return staticCommands != null ? staticCommands : frames.back().commands;
+    }
+
     public void drawRect(float x, float y, float width, float height, float r, float g, float b, float a) {
-        gamePanel.addDrawable(new RectDrawable(x, y, width, height, r, g, b, a));
+        target().rect(x, y, width, height, DrawCommandBuffer.packColor(r, g, b, a));
     }
     
     public void drawCircle(float x, float y, float radius, int segments, float r, float g, float b, float a) {
-        gamePanel.addDrawable(new CircleDrawable(x, y, radius, r, g, b, a));
+        target().circle(x, y, radius, DrawCommandBuffer.packColor(r, g, b, a));
     }
     
     public void drawLine(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
-        gamePanel.addDrawable(new LineDrawable(x1, y1, x2, y2, r, g, b, a));
+        target().line(x1, y1, x2, y2, DrawCommandBuffer.packColor(r, g, b, a));
     }
     
     public void drawText(float x, float y, String text, int size, float r, float g, float b, float a) {
-        gamePanel.addDrawable(new TextDrawable(x, y, text, size, r, g, b, a));
+        target().text(x, y, text, size, DrawCommandBuffer.packColor(r, g, b, a));
+    }
+
+    /**
+     * 本帧已提交的绘制命令数
+     */
+    public int getCommandCount() {
+        return frames.back().commands.size();
+    }
+
+    /**
+     * 上一帧提交的绘制命令数
+     */
+    public int getLastPrimitiveCount() {
+        return lastPrimitiveCount;
+    }
+
+    /**
+     * 上一帧分批后的批次数，每批最多一次颜色切换；关闭分批时等于命令数
+     */
+    public int getLastBatchCount() {
+        return lastBatchCount;
+    }
+
+    /**
+     * 发布时覆盖了尚未绘制的帧的累计次数（游戏循环比绘制快时增长）
+     */
+    public long getDroppedFrames() {
+        return frames.getDroppedFrames();
+    }
+    
+    /**
+     * 批量绘制方形粒子：(xs[i], ys[i]) 为中心，sizes[i] 为边长，argb[i] 为非预乘颜色。
+     * 同一帧内多次调用会写入同一个粒子层，整层在首次调用的位置作为一次绘制提交。
+     */
+    public void drawParticles(float[] xs, float[] ys, int[] sizes, int[] argb, int count) {
+        frames.back().particles().splat(xs, ys, sizes, argb, count);
     }
     
     public boolean shouldClose() {
@@ -109,6 +503,15 @@ public class Renderer extends JFrame {
     }
     
     public void cleanup() {
+        if (bufferStrategy != null) {
+            bufferStrategy.dispose();
+        }
+        if (sceneImage != null) {
+            sceneImage.flush();
+        }
+        if (softwareRasterizer != null) {
+            softwareRasterizer.shutdown();
+        }
         dispose();
     }
     
@@ -118,7 +521,6 @@ public class Renderer extends JFrame {
     }
     
     private class GamePanel extends JPanel {
-        private List<Drawable> drawables = new ArrayList<>();
         
         public GamePanel() {
             setPreferredSize(new Dimension(width, height));
@@ -126,109 +528,14 @@ public class Renderer extends JFrame {
             setOpaque(true); // 确保不透明
         }
         
-        public void clear() {
-            drawables.clear();
-        }
-        
-        public void addDrawable(Drawable drawable) {
-            drawables.add(drawable);
-        }
-        
         @Override
         protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
             super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            
-            for (Drawable drawable : drawables) {
-                drawable.draw(g2d);
-            }
-        }
-    }
-    
-    private interface Drawable {
-        void draw(Graphics2D g);
-    }
-    
-    private static class RectDrawable implements Drawable {
-        private float x, y, width, height;
-        private Color color;
-        
-        public RectDrawable(float x, float y, float width, float height, float r, float g, float b, float a) {
-            this.x = x;
-            this.y = y;
-            this.width = width;
-            this.height = height;
-            this.color = new Color(r, g, b, a);
-        }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            g.setColor(color);
-            g.fillRect((int) x, (int) y, (int) width, (int) height);
-        }
-    }
-    
-    private static class CircleDrawable implements Drawable {
-        private float x, y, radius;
-        private Color color;
-        
-        public CircleDrawable(float x, float y, float radius, float r, float g, float b, float a) {
-            this.x = x;
-            this.y = y;
-            this.radius = radius;
-            this.color = new Color(r, g, b, a);
-        }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            g.setColor(color);
-            g.fillOval((int) (x - radius), (int) (y - radius), (int) (radius * 2), (int) (radius * 2));
-        }
-    }
-    
-    private static class LineDrawable implements Drawable {
-        private float x1, y1, x2, y2;
-        private Color color;
-        
-        public LineDrawable(float x1, float y1, float x2, float y2, float r, float g, float b, float a) {
-            this.x1 = x1;
-            this.y1 = y1;
-            this.x2 = x2;
-            this.y2 = y2;
-            this.color = new Color(r, g, b, a);
-        }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            g.setColor(color);
-            g.drawLine((int) x1, (int) y1, (int) x2, (int) y2);
-        }
-    }
-    
-    private static class TextDrawable implements Drawable {
-        private float x, y;
-        private String text;
-        private Color color;
-        private int size;
-        
-        public TextDrawable(float x, float y, String text, int size, float r, float g, float b, float a) {
-            this.x = x;
-            this.y = y;
-            this.text = text;
-            this.size = size;
-            this.color = new Color(r, g, b, a);
-        }
-        
-        @Override
-        public void draw(Graphics2D g) {
-            g.setColor(color);
-            g.setFont(new Font("Arial", Font.BOLD, size));
-            FontMetrics fm = g.getFontMetrics();
-            int textWidth = fm.stringWidth(text);
-            int textX = (int) x - textWidth / 2;
-            int textY = (int) y + fm.getAscent() / 3;
-            g.drawString(text, textX, textY);
+            frames.acquire();
+            paintFrame((Graphics2D) g, frames.front());
+            lastPresentNanos = System.nanoTime() - start;
+            presentedFrames++;
         }
     }
 }
@@ -0,0 +1,104 @@
+package com.gameengine.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 形状精灵缓存：按 (直径, 颜色) 把抗锯齿圆预先画进与设备兼容的半透明图像，
+ * 之后每次绘制只是一次 drawImage，不再每帧计算抗锯齿覆盖率。
+ * 圆心位于整数坐标时与 fillOval 的结果相同；按 LRU 淘汰，总像素数不超过预算。
+ * LRU 前面有一张以原始 long 为键的直接映射表，命中时不装箱也不查哈希表，
+ * 因此 LRU 顺序只在前表未命中时刷新。只在绘制线程使用，不做同步。
+ */
+final class ShapeSprites {
+    // 超过该直径的圆直接 fillOval：缓存收益低而占用内存大
+    private static final int MAX_DIAMETER = 128;
+    // 抗锯齿边缘超出 fillOval 的整数外框，四周各留一个像素
+    private static final int PAD = 1;
+    // 直接映射前表的槽数（2 的幂）
+    private static final int FRONT_BITS = 8;
+
+    private final LinkedHashMap<Long, BufferedImage> circles = new LinkedHashMap<>(64, 0.75f, true);
+    private final long[] frontKeys = new long[1 << FRONT_BITS];
+    private final BufferedImage[] frontSprites = new BufferedImage[1 << FRONT_BITS];
+    private volatile int pixelBudget;
+    private long cachedPixels;
+
+    /**
+     * @param pixelBudget 缓存图像的总像素数上限，0 表示关闭缓存
+     */
+    ShapeSprites(int pixelBudget) {
+        this.pixelBudget = pixelBudget;
+    }
+
+    /**
+     * 可在任意线程调用，新预算在下一次缓存未命中时生效
+     */
+    void setPixelBudget(int pixelBudget) {
+        this.pixelBudget = pixelBudget;
+    }
+
+    /**
+     * 以精灵绘制 fillOval(x, y, d, d) 的等价结果，不适合缓存时返回 false，由调用方直接绘制
+     */
+    boolean drawCircle(Graphics2D g, int x, int y, int d, int argb) {
+        if (d <= 0 || d > MAX_DIAMETER || pixelBudget == 0) return false;
+        long key = ((long) d << 32) | (argb & 0xFFFFFFFFL);
+        int slot = frontSlot(key);
+        BufferedImage sprite = frontSprites[slot];
+        if (sprite == null || frontKeys[slot] != key) {
+            sprite = circles.get(key);
+            if (sprite == null) {
+                sprite = rasterizeCircle(g.getDeviceConfiguration(), d, argb);
+                circles.put(key, sprite);
+                cachedPixels += (long) sprite.getWidth() * sprite.getHeight();
+                evict();
+            }
+            frontKeys[slot] = key;
+            frontSprites[slot] = sprite;
+        }
+        g.drawImage(sprite, x - PAD, y - PAD, null);
+        return true;
+    }
+
+    private static int frontSlot(long key) {
+        return ((int) (key ^ (key >>> 32)) * 0x9E3779B9) >>> (32 - FRONT_BITS);
+    }
+
+    private static BufferedImage rasterizeCircle(GraphicsConfiguration gc, int d, int argb) {
+        int size = d + PAD * 2;
+        BufferedImage image = gc.createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+        Graphics2D ig = image.createGraphics();
+        ig.setComposite(AlphaComposite.SrcOver);
+        ig.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        ig.setColor(new Color(argb, true));
+        ig.fillOval(PAD, PAD, d, d);
+        ig.dispose();
+        return image;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Long, BufferedImage>> it = circles.entrySet().iterator();
+        // 至少保留刚加入的精灵
+        while (cachedPixels > pixelBudget && circles.size() > 1) {
+            Map.Entry<Long, BufferedImage> eldest = it.next();
+            long key = eldest.getKey();
+            BufferedImage sprite = eldest.getValue();
+            it.remove();
+            cachedPixels -= (long) sprite.getWidth() * sprite.getHeight();
+            // 前表不能留下已淘汰的精灵，否则预算失效
+            int slot = frontSlot(key);
+            if (frontSprites[slot] == sprite) {
+                frontSprites[slot] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.gameengine.graphics;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 软件光栅化后端：把一帧的绘制命令按提交顺序分箱到 64 像素的屏幕瓦片，
+ * 各瓦片在工作线程上并行写入同一个 int[] RGB 帧缓冲（瓦片互不重叠，无需同步），
+ * 结果作为一张 BufferedImage 整体拷贝到屏幕。
+ * 帧缓冲跨帧保留，给出脏矩形时只重新光栅化与之相交的瓦片。
+ * 矩形与 fillRect 逐像素一致；圆按像素中心到圆心的距离计算抗锯齿覆盖率，与 Java2D 略有差异；
+ * 直线不做抗锯齿；文本复用 TextRenderer 的字形图集。
+ */
+final class SoftwareRasterizer implements TextRenderer.GlyphSink {
+    private static final int TILE = 64;
+    // 每个任务至少处理的瓦片数
+    private static final int GRAIN = 2;
+
+    private final int width;
+    private final int height;
+    private final int cols;
+    private final int rows;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final ForkJoinPool pool;
+    private final TextRenderer textRenderer;
+
+    // 每个瓦片按提交顺序的命令编号
+    private final int[][] bins;
+    private final int[] binCount;
+    private final boolean[] tileNeeded;
+
+    // 每条命令的整数包围盒 [x0, x1) x [y0, y1)，以及文本的字形区间
+    private int[] opX0 = new int[256];
+    private int[] opY0 = new int[256];
+    private int[] opX1 = new int[256];
+    private int[] opY1 = new int[256];
+    private int[] glyphStart = new int[256];
+    private int[] glyphEnd = new int[256];
+
+    // 本帧解析出的字形：每个 6 个 int (dx, dy, sx, sy, w, h) 与所在图集
+    private int[] glyphs = new int[6 * 256];
+    private int[][] glyphAtlas = new int[256][];
+    private int[] glyphStride = new int[256];
+    private int glyphCount;
+    private int textMinX, textMinY, textMaxX, textMaxY;
+
+    private DrawCommandBuffer commands;
+
+    SoftwareRasterizer(int width, int height, int threads, TextRenderer textRenderer) {
+        this.width = width;
+        this.height = height;
+        this.cols = (width + TILE - 1) / TILE;
+        this.rows = (height + TILE - 1) / TILE;
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.textRenderer = textRenderer;
+        this.bins = new int[cols * rows][64];
+        this.binCount = new int[cols * rows];
+        this.tileNeeded = new boolean[cols * rows];
+    }
+
+    /**
+     * 光栅化一帧并返回帧缓冲图像。dirty 为 null 时重画所有瓦片，
+     * 否则只重画与其脏矩形相交的瓦片。在绘制线程调用，返回后图像可直接拷贝
+     */
+    BufferedImage render(DrawCommandBuffer commands, DirtyTracker dirty) {
+        this.commands = commands;
+        markTiles(dirty);
+        resolve();
+        bin();
+        pool.invoke(new TileTask(0, cols * rows));
+        this.commands = null;
+        return image;
+    }
+
+    private void markTiles(DirtyTracker dirty) {
+        if (dirty == null) {
+            Arrays.fill(tileNeeded, true);
+            return;
+        }
+        Arrays.fill(tileNeeded, false);
+        for (int r = 0; r < dirty.getRectCount(); r++) {
+            int tx0 = dirty.getRectX(r) / TILE, ty0 = dirty.getRectY(r) / TILE;
+            int tx1 = (dirty.getRectX(r) + dirty.getRectW(r) - 1) / TILE;
+            int ty1 = (dirty.getRectY(r) + dirty.getRectH(r) - 1) / TILE;
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    tileNeeded[ty * cols + tx] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 顺序阶段：计算包围盒，解析文本字形，让自定义层准备像素
+     */
+    private void resolve() {
+        int n = commands.size();
+        if (opX0.length < n) {
+            int cap = Math.max(n, opX0.length * 2);
+            opX0 = Arrays.copyOf(opX0, cap);
+            opY0 = Arrays.copyOf(opY0, cap);
+            opX1 = Arrays.copyOf(opX1, cap);
+            opY1 = Arrays.copyOf(opY1, cap);
+            glyphStart = Arrays.copyOf(glyphStart, cap);
+            glyphEnd = Arrays.copyOf(glyphEnd, cap);
+        }
+        Arrays.fill(glyphAtlas, 0, glyphCount, null);
+        glyphCount = 0;
+        for (int i = 0; i < n; i++) {
+            switch (commands.op(i)) {
+                case DrawCommandBuffer.OP_RECT: {
+                    int x = (int) commands.arg(i, 0), y = (int) commands.arg(i, 1);
+                    setBounds(i, x, y, x + (int) commands.arg(i, 2), y + (int) commands.arg(i, 3));
+                    break;
+                }
+                case DrawCommandBuffer.OP_CIRCLE: {
+                    float radius = commands.arg(i, 2);
+                    int x = (int) (commands.arg(i, 0) - radius), y = (int) (commands.arg(i, 1) - radius);
+                    int d = (int) (radius * 2);
+                    setBounds(i, x - 1, y - 1, x + d + 1, y + d + 1);
+                    break;
+                }
+                case DrawCommandBuffer.OP_LINE: {
+                    int x1 = (int) commands.arg(i, 0), y1 = (int) commands.arg(i, 1);
+                    int x2 = (int) commands.arg(i, 2), y2 = (int) commands.arg(i, 3);
+                    setBounds(i, Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2) + 1, Math.max(y1, y2) + 1);
+                    break;
+                }
+                case DrawCommandBuffer.OP_TEXT: {
+                    textMinX = Integer.MAX_VALUE;
+                    textMinY = Integer.MAX_VALUE;
+                    textMaxX = Integer.MIN_VALUE;
+                    textMaxY = Integer.MIN_VALUE;
+                    glyphStart[i] = glyphCount;
+                    textRenderer.emit(commands.arg(i, 0), commands.arg(i, 1), (String) commands.ref(i),
+                            (int) commands.arg(i, 2), commands.color(i), this);
+                    glyphEnd[i] = glyphCount;
+                    setBounds(i, textMinX, textMinY, textMaxX, textMaxY);
+                    break;
+                }
+                default:
+                    ((DrawCommandBuffer.Custom) commands.ref(i)).prepareRaster();
+                    setBounds(i, 0, 0, width, height);
+            }
+        }
+    }
+
+    private void setBounds(int i, int x0, int y0, int x1, int y1) {
+        opX0[i] = Math.max(0, x0);
+        opY0[i] = Math.max(0, y0);
+        opX1[i] = Math.min(width, x1);
+        opY1[i] = Math.min(height, y1);
+    }
+
+    @Override
+    public void glyph(int[] atlas, int stride, int dx, int dy, int sx, int sy, int w, int h) {
+        if (glyphCount == glyphAtlas.length) {
+            int cap = glyphCount * 2;
+            glyphs = Arrays.copyOf(glyphs, cap * 6);
+            glyphAtlas = Arrays.copyOf(glyphAtlas, cap);
+            glyphStride = Arrays.copyOf(glyphStride, cap);
+        }
+        int k = glyphCount * 6;
+        glyphs[k] = dx;
+        glyphs[k + 1] = dy;
+        glyphs[k + 2] = sx;
+        glyphs[k + 3] = sy;
+        glyphs[k + 4] = w;
+        glyphs[k + 5] = h;
+        glyphAtlas[glyphCount] = atlas;
+        glyphStride[glyphCount] = stride;
+        glyphCount++;
+        textMinX = Math.min(textMinX, dx);
+        textMinY = Math.min(textMinY, dy);
+        textMaxX = Math.max(textMaxX, dx + w);
+        textMaxY = Math.max(textMaxY, dy + h);
+    }
+
+    private void bin() {
+        Arrays.fill(binCount, 0);
+        int n = commands.size();
+        for (int i = 0; i < n; i++) {
+            if (opX0[i] >= opX1[i] || opY0[i] >= opY1[i]) continue;
+            int tx0 = opX0[i] / TILE, ty0 = opY0[i] / TILE;
+            int tx1 = (opX1[i] - 1) / TILE, ty1 = (opY1[i] - 1) / TILE;
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    int t = ty * cols + tx;
+                    if (!tileNeeded[t]) continue;
+                    if (binCount[t] == bins[t].length) {
+                        bins[t] = Arrays.copyOf(bins[t], binCount[t] * 2);
+                    }
+                    bins[t][binCount[t]++] = i;
+                }
+            }
+        }
+    }
+
+    private void rasterTile(int t) {
+        int x0 = (t % cols) * TILE, y0 = (t / cols) * TILE;
+        int x1 = Math.min(width, x0 + TILE), y1 = Math.min(height, y0 + TILE);
+        for (int y = y0; y < y1; y++) {
+            Arrays.fill(pixels, y * width + x0, y * width + x1, 0);
+        }
+        int[] bin = bins[t];
+        for (int k = 0; k < binCount[t]; k++) {
+            int i = bin[k];
+            int cx0 = Math.max(x0, opX0[i]), cy0 = Math.max(y0, opY0[i]);
+            int cx1 = Math.min(x1, opX1[i]), cy1 = Math.min(y1, opY1[i]);
+            switch (commands.op(i)) {
+                case DrawCommandBuffer.OP_RECT:
+                    fillRect(cx0, cy0, cx1, cy1, commands.color(i));
+                    break;
+                case DrawCommandBuffer.OP_CIRCLE:
+                    fillCircle(i, cx0, cy0, cx1, cy1);
+                    break;
+                case DrawCommandBuffer.OP_LINE:
+                    drawLine(i, x0, y0, x1, y1);
+                    break;
+                case DrawCommandBuffer.OP_TEXT:
+                    for (int gl = glyphStart[i]; gl < glyphEnd[i]; gl++) {
+                        blitGlyph(gl, x0, y0, x1, y1);
+                    }
+                    break;
+                default:
+                    ((DrawCommandBuffer.Custom) commands.ref(i)).composite(pixels, width, x0, y0, x1, y1);
+            }
+        }
+    }
+
+    private void fillRect(int x0, int y0, int x1, int y1, int argb) {
+        int a = argb >>> 24;
+        if (a == 0xFF) {
+            for (int y = y0; y < y1; y++) {
+                Arrays.fill(pixels, y * width + x0, y * width + x1, argb & 0xFFFFFF);
+            }
+            return;
+        }
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                pixels[row + x] = blend(pixels[row + x], argb, a);
+            }
+        }
+    }
+
+    private void fillCircle(int i, int x0, int y0, int x1, int y1) {
+        float radius = commands.arg(i, 2);
+        int d = (int) (radius * 2);
+        if (d <= 0) return;
+        // 与 fillOval((int) (cx - r), (int) (cy - r), d, d) 的外框一致
+        float left = (int) (commands.arg(i, 0) - radius), top = (int) (commands.arg(i, 1) - radius);
+        float r = d * 0.5f, cx = left + r, cy = top + r;
+        float inner = Math.max(0, r - 0.5f), outer = r + 0.5f;
+        float inner2 = inner * inner, outer2 = outer * outer;
+        int argb = commands.color(i);
+        int alpha = argb >>> 24;
+        for (int y = y0; y < y1; y++) {
+            float fy = y + 0.5f - cy;
+            float fy2 = fy * fy;
+            if (fy2 >= outer2) continue;
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                float fx = x + 0.5f - cx;
+                float d2 = fx * fx + fy2;
+                if (d2 >= outer2) continue;
+                int a = d2 <= inner2 ? alpha : (int) (alpha * (outer - (float) Math.sqrt(d2)) + 0.5f);
+                if (a > 0) {
+                    pixels[row + x] = blend(pixels[row + x], argb, a);
+                }
+            }
+        }
+    }
+
+    private void drawLine(int i, int x0, int y0, int x1, int y1) {
+        int ax = (int) commands.arg(i, 0), ay = (int) commands.arg(i, 1);
+        int bx = (int) commands.arg(i, 2), by = (int) commands.arg(i, 3);
+        int argb = commands.color(i);
+        int alpha = argb >>> 24;
+        int steps = Math.max(Math.abs(bx - ax), Math.abs(by - ay));
+        for (int s = 0; s <= steps; s++) {
+            int x = steps == 0 ? ax : ax + Math.round((bx - ax) * (float) s / steps);
+            int y = steps == 0 ? ay : ay + Math.round((by - ay) * (float) s / steps);
+            if (x < x0 || x >= x1 || y < y0 || y >= y1) continue;
+            pixels[y * width + x] = blend(pixels[y * width + x], argb, alpha);
+        }
+    }
+
+    private void blitGlyph(int gl, int x0, int y0, int x1, int y1) {
+        int k = gl * 6;
+        int dx = glyphs[k], dy = glyphs[k + 1], sx = glyphs[k + 2], sy = glyphs[k + 3];
+        int cx0 = Math.max(x0, dx), cy0 = Math.max(y0, dy);
+        int cx1 = Math.min(x1, dx + glyphs[k + 4]), cy1 = Math.min(y1, dy + glyphs[k + 5]);
+        if (cx0 >= cx1 || cy0 >= cy1) return;
+        int stride = glyphStride[gl];
+        compositePremultiplied(glyphAtlas[gl], (sy + cy0 - dy) * stride + sx + cx0 - dx, stride,
+                pixels, cy0 * width + cx0, width, cx1 - cx0, cy1 - cy0);
+    }
+
+    /**
+     * 非预乘颜色 argb 以不透明度 a 按 src-over 叠加到不透明像素
+     */
+    private static int blend(int dst, int argb, int a) {
+        int inv = 255 - a;
+        int r = (((argb >> 16) & 0xFF) * a + ((dst >> 16) & 0xFF) * inv + 127) / 255;
+        int g = (((argb >> 8) & 0xFF) * a + ((dst >> 8) & 0xFF) * inv + 127) / 255;
+        int b = ((argb & 0xFF) * a + (dst & 0xFF) * inv + 127) / 255;
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * 把 w x h 的预乘 ARGB 像素按 src-over 合成到不透明 RGB 帧缓冲
+     */
+    static void compositePremultiplied(int[] src, int srcOffset, int srcStride,
+                                       int[] dst, int dstOffset, int dstStride, int w, int h) {
+        for (int y = 0; y < h; y++) {
+            int si = srcOffset + y * srcStride, di = dstOffset + y * dstStride;
+            for (int x = 0; x < w; x++, si++, di++) {
+                int s = src[si];
+                int sa = s >>> 24;
+                if (sa == 0) continue;
+                if (sa == 0xFF) {
+                    dst[di] = s & 0xFFFFFF;
+                    continue;
+                }
+                int d = dst[di];
+                int inv = 255 - sa;
+                int r = ((s >> 16) & 0xFF) + (((d >> 16) & 0xFF) * inv + 127) / 255;
+                int g = ((s >> 8) & 0xFF) + (((d >> 8) & 0xFF) * inv + 127) / 255;
+                int b = (s & 0xFF) + ((d & 0xFF) * inv + 127) / 255;
+                dst[di] = (Math.min(255, r) << 16) | (Math.min(255, g) << 8) | Math.min(255, b);
+            }
+        }
+    }
+
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private class TileTask extends RecursiveAction {
+        private final int start, end;
+
+        TileTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > GRAIN) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new TileTask(start, mid), new TileTask(mid, end));
+                return;
+            }
+            for (int t = start; t < end; t++) {
+                if (tileNeeded[t]) rasterTile(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.gameengine.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.VolatileImage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 静态层：游戏循环把静态内容录制成一份命令缓冲区并发布，绘制线程收到后栅格化到一张
+ * 显存图像（VolatileImage）中，之后每帧只做一次整图拷贝。图像内容丢失或与设备不兼容时
+ * 用保留的命令重新栅格化，游戏循环无需感知。
+ */
+final class StaticLayer implements DrawCommandBuffer.Custom {
+    private final int width;
+    private final int height;
+    private final TextRenderer textRenderer;
+    private final ShapeSprites sprites;
+    private final AtomicReference<DrawCommandBuffer> pending = new AtomicReference<>();
+    // 发布次数，只在游戏循环线程访问，作为静态层的内容哈希
+    private long publishCount;
+
+    // 以下只在绘制线程访问
+    private DrawCommandBuffer content;
+    private VolatileImage image;
+    private boolean dirty;
+    // 软件光栅化使用的堆内存副本
+    private int[] raster;
+    private boolean rasterDirty;
+
+    StaticLayer(int width, int height, TextRenderer textRenderer, ShapeSprites sprites) {
+        this.width = width;
+        this.height = height;
+        this.textRenderer = textRenderer;
+        this.sprites = sprites;
+    }
+
+    /**
+     * 由游戏循环调用，发布新的静态内容；发布后不能再修改该缓冲区
+     */
+    void publish(DrawCommandBuffer commands) {
+        pending.set(commands);
+        publishCount++;
+    }
+
+    @Override
+    public void track(DirtyTracker tracker) {
+        tracker.add(0, 0, width, height, publishCount);
+    }
+
+    private void takePending() {
+        DrawCommandBuffer next = pending.getAndSet(null);
+        if (next != null) {
+            content = next;
+            dirty = true;
+            rasterDirty = true;
+        }
+    }
+
+    @Override
+    public void prepareRaster() {
+        takePending();
+        if (content == null || (raster != null && !rasterDirty)) return;
+        BufferedImage buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D ig = buffer.createGraphics();
+        paintContent(ig);
+        ig.dispose();
+        raster = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
+        rasterDirty = false;
+    }
+
+    @Override
+    public void composite(int[] dst, int stride, int x0, int y0, int x1, int y1) {
+        if (raster == null) return;
+        SoftwareRasterizer.compositePremultiplied(raster, y0 * width + x0, width,
+                dst, y0 * stride + x0, stride, x1 - x0, y1 - y0);
+    }
+
+    @Override
+    public void draw(Graphics2D g) {
+        takePending();
+        if (content == null) return;
+        GraphicsConfiguration gc = g.getDeviceConfiguration();
+        do {
+            int status = image == null ? VolatileImage.IMAGE_INCOMPATIBLE : image.validate(gc);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (image != null) image.flush();
+                image = gc.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+                dirty = true;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                dirty = true;
+            }
+            if (dirty) {
+                rasterize();
+            }
+            g.drawImage(image, 0, 0, null);
+        } while (image.contentsLost());
+    }
+
+    private void rasterize() {
+        Graphics2D ig = image.createGraphics();
+        paintContent(ig);
+        ig.dispose();
+        dirty = false;
+    }
+
+    private void paintContent(Graphics2D ig) {
+        ig.setComposite(AlphaComposite.Clear);
+        ig.fillRect(0, 0, width, height);
+        ig.setComposite(AlphaComposite.SrcOver);
+        ig.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        content.execute(ig, textRenderer, sprites);
+    }
+}
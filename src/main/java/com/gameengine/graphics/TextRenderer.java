@@ -0,0 +1,231 @@
+package com.gameengine.graphics;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文本绘制：每个字号缓存一个 Font 与字形图集，每个字号下按字符串缓存排版结果（LRU），
+ * 每种颜色在首次使用时把图集着色成一张图像。绘制文本只是按排版结果从图集逐字拷贝，
+ * 每帧不创建字体、不测量字符串。只在绘制线程使用，不做同步。
+ */
+final class TextRenderer {
+    private static final String FONT_NAME = "Arial";
+    private static final int ATLAS_WIDTH = 512;
+    private static final int PADDING = 2;
+    private static final int MAX_LAYOUTS_PER_FACE = 256;
+    private static final int MAX_COLORS_PER_FACE = 8;
+
+    private final Map<Integer, FontFace> faces = new HashMap<>();
+
+    /**
+     * 以 (x, y) 为水平中心绘制文本，定位方式与 Graphics.drawString 版本一致
+     */
+    void draw(Graphics2D g, float x, float y, String text, int size, int argb) {
+        if (text.isEmpty()) return;
+        FontFace face = faces.get(size);
+        if (face == null) {
+            face = new FontFace(size);
+            faces.put(size, face);
+        }
+        Layout layout = face.layout(text);
+        BufferedImage atlas = face.atlas(argb);
+        int penX = (int) x - layout.width / 2;
+        int top = (int) y + face.ascent / 3 - face.ascent - PADDING;
+        for (int i = 0; i < layout.slots.length; i++) {
+            int slot = layout.slots[i];
+            int sx = face.slotX[slot], sy = face.slotY[slot], w = face.slotW[slot];
+            int dx = penX + layout.offsets[i] - PADDING;
+            g.drawImage(atlas, dx, top, dx + w, top + face.cellHeight, sx, sy, sx + w, sy + face.cellHeight, null);
+        }
+    }
+
+    /**
+     * 接收逐字的图集拷贝：把图集 (sx, sy) 起 w x h 的预乘 ARGB 像素合成到 (dx, dy)
+     */
+    interface GlyphSink {
+        void glyph(int[] atlas, int stride, int dx, int dy, int sx, int sy, int w, int h);
+    }
+
+    /**
+     * 软件光栅化用：定位与 draw 相同，但把每个字形交给 sink 而不是绘制
+     */
+    void emit(float x, float y, String text, int size, int argb, GlyphSink sink) {
+        if (text.isEmpty()) return;
+        FontFace face = faces.get(size);
+        if (face == null) {
+            face = new FontFace(size);
+            faces.put(size, face);
+        }
+        Layout layout = face.layout(text);
+        BufferedImage atlas = face.atlas(argb);
+        int[] pixels = ((DataBufferInt) atlas.getRaster().getDataBuffer()).getData();
+        int penX = (int) x - layout.width / 2;
+        int top = (int) y + face.ascent / 3 - face.ascent - PADDING;
+        for (int i = 0; i < layout.slots.length; i++) {
+            int slot = layout.slots[i];
+            int dx = penX + layout.offsets[i] - PADDING;
+            sink.glyph(pixels, ATLAS_WIDTH, dx, top, face.slotX[slot], face.slotY[slot], face.slotW[slot],
+                    face.cellHeight);
+        }
+    }
+
+    /**
+     * 一个字号的字体、字形槽位与各颜色的图集
+     */
+    private static final class FontFace {
+        final Font font;
+        final FontMetrics metrics;
+        final int ascent;
+        final int cellHeight;
+        final Map<Character, Integer> slotOf = new HashMap<>();
+        char[] slotChar = new char[128];
+        int[] slotX = new int[128];
+        int[] slotY = new int[128];
+        int[] slotW = new int[128];
+        int slotCount;
+        int atlasHeight;
+        int cursorX;
+        int cursorY;
+        final List<ColoredAtlas> colored = new ArrayList<>();
+        final LinkedHashMap<String, Layout> layouts = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Layout> eldest) {
+                return size() > MAX_LAYOUTS_PER_FACE;
+            }
+        };
+
+        FontFace(int size) {
+            this.font = new Font(FONT_NAME, Font.BOLD, size);
+            Graphics2D scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+            this.metrics = scratch.getFontMetrics(font);
+            scratch.dispose();
+            this.ascent = metrics.getAscent();
+            this.cellHeight = metrics.getAscent() + metrics.getDescent() + PADDING * 2;
+            this.atlasHeight = cellHeight;
+        }
+
+        Layout layout(String text) {
+            Layout layout = layouts.get(text);
+            if (layout != null) return layout;
+            int[] slots = new int[text.length()];
+            int[] offsets = new int[text.length()];
+            int pen = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                slots[i] = slotFor(c);
+                offsets[i] = pen;
+                pen += metrics.charWidth(c);
+            }
+            // 整串宽度用 stringWidth，与逐字累加的差异不影响居中
+            layout = new Layout(slots, offsets, metrics.stringWidth(text));
+            layouts.put(text, layout);
+            return layout;
+        }
+
+        private int slotFor(char c) {
+            Integer slot = slotOf.get(c);
+            if (slot != null) return slot;
+            int w = metrics.charWidth(c) + PADDING * 2;
+            if (cursorX + w > ATLAS_WIDTH) {
+                cursorX = 0;
+                cursorY += cellHeight;
+            }
+            if (cursorY + cellHeight > atlasHeight) {
+                // 图集增高，各颜色图集在下次使用时重建
+                atlasHeight = Math.max(atlasHeight * 2, cursorY + cellHeight);
+            }
+            if (slotCount == slotX.length) {
+                int cap = slotCount * 2;
+                slotChar = Arrays.copyOf(slotChar, cap);
+                slotX = Arrays.copyOf(slotX, cap);
+                slotY = Arrays.copyOf(slotY, cap);
+                slotW = Arrays.copyOf(slotW, cap);
+            }
+            int id = slotCount++;
+            slotChar[id] = c;
+            slotX[id] = cursorX;
+            slotY[id] = cursorY;
+            slotW[id] = w;
+            cursorX += w;
+            slotOf.put(c, id);
+            return id;
+        }
+
+        BufferedImage atlas(int argb) {
+            ColoredAtlas atlas = null;
+            for (int i = 0; i < colored.size(); i++) {
+                if (colored.get(i).argb == argb) {
+                    atlas = colored.get(i);
+                    break;
+                }
+            }
+            if (atlas == null) {
+                if (colored.size() == MAX_COLORS_PER_FACE) colored.remove(0);
+                atlas = new ColoredAtlas(argb);
+                colored.add(atlas);
+            }
+            atlas.sync(this);
+            return atlas.image;
+        }
+    }
+
+    /**
+     * 某种颜色的图集图像，只补画新增的字形
+     */
+    private static final class ColoredAtlas {
+        final int argb;
+        BufferedImage image;
+        int renderedSlots;
+
+        ColoredAtlas(int argb) {
+            this.argb = argb;
+        }
+
+        void sync(FontFace face) {
+            if (image == null || image.getHeight() != face.atlasHeight) {
+                image = new BufferedImage(ATLAS_WIDTH, face.atlasHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+                renderedSlots = 0;
+            }
+            if (renderedSlots == face.slotCount) return;
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setComposite(AlphaComposite.Src);
+            g.setFont(face.font);
+            g.setColor(new Color(argb, true));
+            for (int s = renderedSlots; s < face.slotCount; s++) {
+                g.drawString(String.valueOf(face.slotChar[s]),
+                        face.slotX[s] + PADDING, face.slotY[s] + PADDING + face.ascent);
+            }
+            g.dispose();
+            renderedSlots = face.slotCount;
+        }
+    }
+
+    /**
+     * 一个字符串的排版结果：每个字符的字形槽位与相对起点的横向偏移
+     */
+    private static final class Layout {
+        final int[] slots;
+        final int[] offsets;
+        final int width;
+
+        Layout(int[] slots, int[] offsets, int width) {
+            this.slots = slots;
+            this.offsets = offsets;
+            this.width = width;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.gameengine.graphics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 无锁三缓冲：生产者只写后缓冲，写完后与中间缓冲原子交换发布；
+ * 消费者只读前缓冲，有新发布的帧时与中间缓冲原子交换取得最新完整帧。
+ * 双方都不阻塞，生产者比消费者快时未被读取的旧帧直接被覆盖。
+ */
+final class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    // 中间缓冲的下标，FRESH 位表示发布后尚未被消费者取走
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+    private long publishedFrames;
+    private long droppedFrames;
+
+    TripleBuffer(T first, T second, T third) {
+        this.slots = new Object[] {first, second, third};
+    }
+
+    /**
+     * 生产者当前可写的缓冲
+     */
+    @SuppressWarnings("unchecked")
+    T back() {
+        return (T) slots[back];
+    }
+
+    /**
+     * 发布后缓冲，生产者随后得到一个新的可写缓冲
+     */
+    void publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        if ((previous & FRESH) != 0) droppedFrames++;
+        back = previous & INDEX_MASK;
+        publishedFrames++;
+    }
+
+    /**
+     * 消费者取最新发布的帧，返回是否取到新帧；没有新帧时前缓冲保持上一帧
+     */
+    boolean acquire() {
+        if ((middle.get() & FRESH) == 0) return false;
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * 消费者当前可读的缓冲
+     */
+    @SuppressWarnings("unchecked")
+    T front() {
+        return (T) slots[front];
+    }
+
+    /**
+     * 累计发布的帧数（仅生产者线程读取）
+     */
+    long getPublishedFrames() {
+        return publishedFrames;
+    }
+
+    /**
+     * 发布时覆盖了尚未被读取的帧的次数（仅生产者线程读取）
+     */
+    long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
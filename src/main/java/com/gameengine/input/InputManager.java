@@ -18,7 +18,10 @@ public class InputManager {
     private boolean[] mouseButtons;
     private boolean[] mouseButtonsJustPressed;
 
-    private InputManager() {
+    /**
+     * 创建独立的输入状态，供无窗口模拟的脚本输入使用；窗口模式使用 getInstance
+     */
+    public InputManager() {
         pressedKeys = new HashSet<>();
         justPressedKeys = new HashSet<>();
         keyStates = new HashMap<>();
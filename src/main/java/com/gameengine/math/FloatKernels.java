@@ -0,0 +1,48 @@
+package com.gameengine.math;
+
+/**
+ * 针对打包 x/y 浮点数组的计算内核（距离阈值、成对避让力累加、边界反弹）。
+ * 有 SIMD 实现（jdk.incubator.vector）与标量实现两种，运行时按模块可用性选择。
+ */
+public interface FloatKernels {
+    /**
+     * 成对排斥力：对 [from, to) 中与 (qx, qy) 距离小于 radius、大于 0 且编号大于 minId 的点，
+     * 计算 f = d * gain * (radius - |d|) / |d|（d 由该点指向查询点），
+     * 把 f 的和加到 out[0], out[1]，同时把 -f 累加到 reactX/reactY 的下标 k - reactOffset（作用力与反作用力）
+     */
+    void accumulatePairwise(float qx, float qy, float[] xs, float[] ys, int[] ids, int minId,
+                            int from, int to, float radius, float gain, float[] out,
+                            float[] reactX, float[] reactY, int reactOffset);
+
+    /**
+     * 将 [from, to) 中的位置夹在边界内，碰到或越过边界的轴速度取反
+     */
+    void bounceInBounds(float[] px, float[] py, float[] vx, float[] vy, int from, int to,
+                        float minX, float minY, float maxX, float maxY);
+
+    /**
+     * 实现名称，用于日志与基准测试输出
+     */
+    String name();
+
+    /**
+     * 当前 JVM 是否加载了 jdk.incubator.vector 模块
+     */
+    static boolean isSimdAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * 选择内核实现：优先 SIMD，不可用时回退到标量实现
+     */
+    static FloatKernels select(boolean preferSimd) {
+        if (preferSimd && isSimdAvailable()) {
+            try {
+                return new SimdFloatKernels();
+            } catch (LinkageError e) {
+                System.err.println("SIMD 内核不可用，回退到标量实现: " + e);
+            }
+        }
+        return new ScalarFloatKernels();
+    }
+}
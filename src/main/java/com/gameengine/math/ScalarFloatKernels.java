@@ -0,0 +1,49 @@
+package com.gameengine.math;
+
+/**
+ * 标量内核实现，也作为 SIMD 实现的尾部处理与回退
+ */
+public final class ScalarFloatKernels implements FloatKernels {
+    @Override
+    public void accumulatePairwise(float qx, float qy, float[] xs, float[] ys, int[] ids, int minId,
+                                   int from, int to, float radius, float gain, float[] out,
+                                   float[] reactX, float[] reactY, int reactOffset) {
+        float r2 = radius * radius;
+        float sumX = 0, sumY = 0;
+        for (int k = from; k < to; k++) {
+            if (ids[k] <= minId) continue;
+            float dx = qx - xs[k];
+            float dy = qy - ys[k];
+            float d2 = dx * dx + dy * dy;
+            if (d2 < r2 && d2 > 0) {
+                float d = (float) Math.sqrt(d2);
+                float scale = (radius - d) * gain / d;
+                float fx = dx * scale;
+                float fy = dy * scale;
+                sumX += fx;
+                sumY += fy;
+                reactX[k - reactOffset] -= fx;
+                reactY[k - reactOffset] -= fy;
+            }
+        }
+        out[0] += sumX;
+        out[1] += sumY;
+    }
+
+    @Override
+    public void bounceInBounds(float[] px, float[] py, float[] vx, float[] vy, int from, int to,
+                               float minX, float minY, float maxX, float maxY) {
+        for (int i = from; i < to; i++) {
+            float x = px[i], y = py[i];
+            if (x <= minX || x >= maxX) vx[i] = -vx[i];
+            if (y <= minY || y >= maxY) vy[i] = -vy[i];
+            px[i] = Math.min(Math.max(x, minX), maxX);
+            py[i] = Math.min(Math.max(y, minY), maxY);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
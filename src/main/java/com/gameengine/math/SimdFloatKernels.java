@@ -0,0 +1,78 @@
+package com.gameengine.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 jdk.incubator.vector 的 SIMD 内核，按首选向量宽度处理，剩余元素交给标量实现。
+ * 只能在 --add-modules jdk.incubator.vector 的 JVM 中加载，请通过 FloatKernels.select 获取。
+ */
+public final class SimdFloatKernels implements FloatKernels {
+    private static final VectorSpecies<Float> F = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> I = VectorSpecies.of(int.class, F.vectorShape());
+
+    private final ScalarFloatKernels tail = new ScalarFloatKernels();
+
+    @Override
+    public void accumulatePairwise(float qx, float qy, float[] xs, float[] ys, int[] ids, int minId,
+                                   int from, int to, float radius, float gain, float[] out,
+                                   float[] reactX, float[] reactY, int reactOffset) {
+        FloatVector vqx = FloatVector.broadcast(F, qx);
+        FloatVector vqy = FloatVector.broadcast(F, qy);
+        FloatVector vRadius = FloatVector.broadcast(F, radius);
+        FloatVector zero = FloatVector.zero(F);
+        float r2 = radius * radius;
+        FloatVector sumX = zero;
+        FloatVector sumY = zero;
+        int k = from;
+        int upper = from + F.loopBound(to - from);
+        for (; k < upper; k += F.length()) {
+            FloatVector dx = vqx.sub(FloatVector.fromArray(F, xs, k));
+            FloatVector dy = vqy.sub(FloatVector.fromArray(F, ys, k));
+            FloatVector d2 = dx.mul(dx).add(dy.mul(dy));
+            VectorMask<Float> m = d2.compare(VectorOperators.LT, r2)
+                    .and(d2.compare(VectorOperators.GT, 0f))
+                    .and(IntVector.fromArray(I, ids, k).compare(VectorOperators.GT, minId).cast(F));
+            if (!m.anyTrue()) continue;
+            FloatVector d = d2.sqrt();
+            FloatVector scale = vRadius.sub(d).mul(gain).div(d);
+            // 未命中的通道置 0，避免 NaN 写回反作用力数组
+            FloatVector fx = zero.blend(dx.mul(scale), m);
+            FloatVector fy = zero.blend(dy.mul(scale), m);
+            sumX = sumX.add(fx);
+            sumY = sumY.add(fy);
+            int r = k - reactOffset;
+            FloatVector.fromArray(F, reactX, r).sub(fx).intoArray(reactX, r);
+            FloatVector.fromArray(F, reactY, r).sub(fy).intoArray(reactY, r);
+        }
+        out[0] += sumX.reduceLanes(VectorOperators.ADD);
+        out[1] += sumY.reduceLanes(VectorOperators.ADD);
+        tail.accumulatePairwise(qx, qy, xs, ys, ids, minId, k, to, radius, gain, out, reactX, reactY, reactOffset);
+    }
+
+    @Override
+    public void bounceInBounds(float[] px, float[] py, float[] vx, float[] vy, int from, int to,
+                               float minX, float minY, float maxX, float maxY) {
+        int i = from;
+        int upper = from + F.loopBound(to - from);
+        for (; i < upper; i += F.length()) {
+            FloatVector x = FloatVector.fromArray(F, px, i);
+            FloatVector y = FloatVector.fromArray(F, py, i);
+            VectorMask<Float> hitX = x.compare(VectorOperators.LE, minX).or(x.compare(VectorOperators.GE, maxX));
+            VectorMask<Float> hitY = y.compare(VectorOperators.LE, minY).or(y.compare(VectorOperators.GE, maxY));
+            FloatVector.fromArray(F, vx, i).lanewise(VectorOperators.NEG, hitX).intoArray(vx, i);
+            FloatVector.fromArray(F, vy, i).lanewise(VectorOperators.NEG, hitY).intoArray(vy, i);
+            x.max(minX).min(maxX).intoArray(px, i);
+            y.max(minY).min(maxY).intoArray(py, i);
+        }
+        tail.bounceInBounds(px, py, vx, vy, i, to, minX, minY, maxX, maxY);
+    }
+
+    @Override
+    public String name() {
+        return "simd-" + F.length() + "x" + F.elementSize();
+    }
+}
@@ -0,0 +1,65 @@
+package com.gameengine.particles;
+
+/**
+ * 粒子发射器预设：一次爆发的数量、速度、寿命、尺寸、颜色与重力。不可变，可在多处共享。
+ */
+public final class ParticleEmitter {
+    private final int burstCount;
+    private final float minSpeed;
+    private final float maxSpeed;
+    private final float minLife;
+    private final float maxLife;
+    private final int size;
+    private final int argb;
+    private final float gravityY;
+
+    /**
+     * @param size 粒子边长（像素）
+     * @param argb 颜色（0xAARRGGBB），透明度随剩余寿命线性衰减
+     */
+    public ParticleEmitter(int burstCount, float minSpeed, float maxSpeed, float minLife, float maxLife,
+                           int size, int argb, float gravityY) {
+        if (burstCount <= 0) throw new IllegalArgumentException("burstCount must be positive");
+        if (minLife <= 0 || maxLife < minLife) throw new IllegalArgumentException("invalid life range");
+        this.burstCount = burstCount;
+        this.minSpeed = minSpeed;
+        this.maxSpeed = maxSpeed;
+        this.minLife = minLife;
+        this.maxLife = maxLife;
+        this.size = Math.max(1, size);
+        this.argb = argb;
+        this.gravityY = gravityY;
+    }
+
+    public int getBurstCount() {
+        return burstCount;
+    }
+
+    public float getMinSpeed() {
+        return minSpeed;
+    }
+
+    public float getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public float getMinLife() {
+        return minLife;
+    }
+
+    public float getMaxLife() {
+        return maxLife;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getArgb() {
+        return argb;
+    }
+
+    public float getGravityY() {
+        return gravityY;
+    }
+}
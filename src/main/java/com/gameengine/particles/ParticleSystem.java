@@ -0,0 +1,251 @@
+package com.gameengine.particles;
+
+import com.gameengine.graphics.Renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 粒子系统：粒子不是 GameObject，而是固定容量的基本类型数组（结构数组）中的一行。
+ * 游戏逻辑通过 emit 把爆发请求写入定长环形缓冲区（满时覆盖最旧的请求），update 时统一展开；
+ * 粒子池满时按轮转覆盖已有粒子。所有粒子在一个循环里积分（数量多时可并行），
+ * 死亡粒子与末尾交换移除，最后作为一个批次提交给渲染器。稳态运行不分配对象。
+ */
+public class ParticleSystem {
+    private static final int REQUEST_CAPACITY = 256;
+
+    private final int capacity;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final List<ParticleEmitter> emitters = new ArrayList<>();
+
+    // 粒子数据，前 count 个为存活粒子
+    private final float[] px;
+    private final float[] py;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] gravity;
+    private final float[] life;
+    private final float[] invMaxLife;
+    private final int[] size;
+    private final int[] color;
+    private int count;
+    private int overwriteCursor;
+
+    // 渲染用的打包数据（颜色已按寿命衰减）
+    private final int[] drawColor;
+
+    // 爆发请求环形缓冲区
+    private final int[] requestEmitter = new int[REQUEST_CAPACITY];
+    private final float[] requestX = new float[REQUEST_CAPACITY];
+    private final float[] requestY = new float[REQUEST_CAPACITY];
+    private int requestHead;
+    private int requestCount;
+
+    private int randomState;
+    private long totalEmitted;
+
+    /**
+     * @param pool 并行积分用的线程池，为 null 时始终串行
+     * @param parallelThreshold 存活粒子数达到该值时并行积分
+     * @param seed 粒子随机散布的种子
+     */
+    public ParticleSystem(int capacity, ForkJoinPool pool, int parallelThreshold, long seed) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.px = new float[capacity];
+        this.py = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.gravity = new float[capacity];
+        this.life = new float[capacity];
+        this.invMaxLife = new float[capacity];
+        this.size = new int[capacity];
+        this.color = new int[capacity];
+        this.drawColor = new int[capacity];
+        this.randomState = (int) (seed ^ (seed >>> 32)) | 1;
+    }
+
+    /**
+     * 注册发射器预设，返回其编号
+     */
+    public int registerEmitter(ParticleEmitter emitter) {
+        emitters.add(emitter);
+        return emitters.size() - 1;
+    }
+
+    /**
+     * 请求在 (x, y) 处按指定发射器爆发一次，O(1)，实际生成在下一次 update
+     */
+    public void emit(int emitterId, float x, float y) {
+        if (emitterId < 0 || emitterId >= emitters.size()) {
+            throw new IllegalArgumentException("unknown emitter " + emitterId);
+        }
+        int slot = (requestHead + requestCount) % REQUEST_CAPACITY;
+        if (requestCount == REQUEST_CAPACITY) {
+            // 缓冲区满时丢弃最旧的请求
+            requestHead = (requestHead + 1) % REQUEST_CAPACITY;
+        } else {
+            requestCount++;
+        }
+        requestEmitter[slot] = emitterId;
+        requestX[slot] = x;
+        requestY[slot] = y;
+    }
+
+    /**
+     * 展开待处理的爆发请求并积分所有粒子
+     */
+    public void update(float deltaTime) {
+        drainRequests();
+        if (count == 0) return;
+        if (pool != null && count >= parallelThreshold) {
+            pool.invoke(new IntegrateTask(0, count, deltaTime));
+        } else {
+            integrate(0, count, deltaTime);
+        }
+        compact();
+    }
+
+    /**
+     * 把所有存活粒子作为一个批次提交给渲染器
+     */
+    public void render(Renderer renderer) {
+        if (count == 0) return;
+        for (int i = 0; i < count; i++) {
+            int alpha = (int) ((color[i] >>> 24) * Math.min(1f, life[i] * invMaxLife[i]));
+            drawColor[i] = (alpha << 24) | (color[i] & 0x00FFFFFF);
+        }
+        renderer.drawParticles(px, py, size, drawColor, count);
+    }
+
+    public void clear() {
+        count = 0;
+        requestCount = 0;
+    }
+
+    private void drainRequests() {
+        while (requestCount > 0) {
+            int slot = requestHead;
+            requestHead = (requestHead + 1) % REQUEST_CAPACITY;
+            requestCount--;
+            spawnBurst(emitters.get(requestEmitter[slot]), requestX[slot], requestY[slot]);
+        }
+    }
+
+    private void spawnBurst(ParticleEmitter emitter, float x, float y) {
+        float speedRange = emitter.getMaxSpeed() - emitter.getMinSpeed();
+        float lifeRange = emitter.getMaxLife() - emitter.getMinLife();
+        for (int k = 0; k < emitter.getBurstCount(); k++) {
+            int i;
+            if (count < capacity) {
+                i = count++;
+            } else {
+                // 池满时轮转覆盖已有粒子，保证新的爆发总能显示
+                i = overwriteCursor;
+                overwriteCursor = (overwriteCursor + 1) % capacity;
+            }
+            float angle = nextFloat() * (float) (Math.PI * 2);
+            float speed = emitter.getMinSpeed() + nextFloat() * speedRange;
+            float maxLife = emitter.getMinLife() + nextFloat() * lifeRange;
+            px[i] = x;
+            py[i] = y;
+            vx[i] = (float) Math.cos(angle) * speed;
+            vy[i] = (float) Math.sin(angle) * speed;
+            gravity[i] = emitter.getGravityY();
+            life[i] = maxLife;
+            invMaxLife[i] = 1f / maxLife;
+            size[i] = emitter.getSize();
+            color[i] = emitter.getArgb();
+            totalEmitted++;
+        }
+    }
+
+    private void integrate(int start, int end, float dt) {
+        for (int i = start; i < end; i++) {
+            float nvy = vy[i] + gravity[i] * dt;
+            vy[i] = nvy;
+            px[i] += vx[i] * dt;
+            py[i] += nvy * dt;
+            life[i] -= dt;
+        }
+    }
+
+    /**
+     * 死亡粒子与末尾的存活粒子交换，保持前 count 个紧凑
+     */
+    private void compact() {
+        int i = 0;
+        while (i < count) {
+            if (life[i] > 0) {
+                i++;
+                continue;
+            }
+            int last = --count;
+            px[i] = px[last];
+            py[i] = py[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            gravity[i] = gravity[last];
+            life[i] = life[last];
+            invMaxLife[i] = invMaxLife[last];
+            size[i] = size[last];
+            color[i] = color[last];
+        }
+        if (overwriteCursor >= count) overwriteCursor = 0;
+    }
+
+    // xorshift32，粒子散布只影响视觉，不占用游戏逻辑的随机数流
+    private float nextFloat() {
+        int x = randomState;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        randomState = x;
+        return (x >>> 8) * (1.0f / (1 << 24));
+    }
+
+    private class IntegrateTask extends RecursiveAction {
+        private static final int GRAIN = 4096;
+        private final int start, end;
+        private final float dt;
+
+        IntegrateTask(int start, int end, float dt) {
+            this.start = start;
+            this.end = end;
+            this.dt = dt;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > GRAIN) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new IntegrateTask(start, mid, dt), new IntegrateTask(mid, end, dt));
+                return;
+            }
+            integrate(start, end, dt);
+        }
+    }
+
+    /**
+     * 当前存活粒子数
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 累计生成的粒子数
+     */
+    public long getTotalEmitted() {
+        return totalEmitted;
+    }
+}
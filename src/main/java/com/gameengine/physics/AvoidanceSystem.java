@@ -0,0 +1,695 @@
+package com.gameengine.physics;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+import com.gameengine.math.FloatKernels;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 敌人避让系统：每个邻居对只计算一次，双方获得大小相等、方向相反的避让力。
+ * 第一阶段以 fork/join 递归切分网格槽位区间，工作线程窃取任务，把作用力写入自己的累加数组；
+ * 第二阶段同样递归切分，归约所有线程的累加值并更新速度，线程之间没有共享写。
+ * 串行/并行的选择与切块大小由 ParallelTuner 在运行时按本机实测耗时决定（也可关闭自动调优）。
+ * 确定性模式下改为按固定大小的槽位分块累加，每块只写自己的邻域窗口，再按块号顺序归约，
+ * 浮点求和顺序与线程数、任务切分和窃取顺序都无关，结果逐位可复现。
+ * 质量等级低于 FULL 时改为每个敌人只在有限个候选中保留距离最近的若干邻居，单个敌人的开销有上界；
+ * 开启自动调节后，耗时连续超出预算会逐级降低质量，长期宽裕时再逐级恢复。
+ */
+public class AvoidanceSystem {
+    private static final float GAIN = 50.0f / 80.0f;
+    private static final float MAX_STEER = 50f;
+    private static final float MAX_SPEED = 150f;
+    private static final int DETERMINISTIC_CHUNK = 64;
+    // 有界模式下每个敌人最多检查 maxNeighbors * SCAN_FACTOR 个候选
+    private static final int SCAN_FACTOR = 4;
+    private static final int OVER_BUDGET_FRAMES = 3;
+    private static final int UNDER_BUDGET_FRAMES = 120;
+
+    /**
+     * 避让质量等级
+     */
+    public enum Quality {
+        /** 所有半径内邻居都参与，每对只算一次 */
+        FULL,
+        /** 每个敌人最多取 maxNeighbors 个最近邻居，扫描 3x3 格 */
+        CAPPED,
+        /** 改用边长为两倍半径的粗网格（最多扫描 2x2 格），邻居上限减半，且每帧只更新一半敌人（步长加倍） */
+        COARSE
+    }
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final int batchSize;
+    private final float radius;
+    private final FloatKernels kernels;
+    private final SpatialHashGrid grid;
+    // COARSE 使用的粗网格，半径范围最多覆盖 2x2 格
+    private final SpatialHashGrid coarseGrid;
+    private final NeighborHeap serialHeap = new NeighborHeap();
+    private final ParallelTuner tuner;
+    private final float[] serialScratch = new float[2];
+
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    private PhysicsComponent[] bodies = new PhysicsComponent[64];
+    private int count;
+    private float deltaTime;
+
+    // 每个工作线程一组累加数组，下标为网格槽位；线程在每帧首次参与时领取槽号
+    private volatile float[][] accX;
+    private volatile float[][] accY;
+    private int rowCapacity = 64;
+    private volatile int epoch;
+    private final AtomicInteger slotCounter = new AtomicInteger();
+    private final ThreadLocal<WorkerState> workerState = ThreadLocal.withInitial(WorkerState::new);
+    private int lastChoice;
+
+    // 确定性模式：第 c 块的累加窗口为槽位 [chunkLo[c], chunkHi[c])，存放在 chunkAccX/Y 的 chunkBase[c] 起
+    private boolean deterministic;
+    private int chunkCount;
+    private int[] chunkLo = new int[16];
+    private int[] chunkHi = new int[16];
+    private int[] chunkBase = new int[17];
+    private float[] chunkAccX = new float[64];
+    private float[] chunkAccY = new float[64];
+    private float[] forceX = new float[64];
+    private float[] forceY = new float[64];
+
+    // 质量控制
+    private Quality quality = Quality.FULL;
+    private int maxNeighbors = 16;
+    private long budgetNanos = 4_000_000L;
+    private boolean autoQuality;
+    private int overBudget;
+    private int underBudget;
+    private int coarseParity;
+    private long lastNanos;
+
+    private static class WorkerState {
+        int epoch = -1;
+        int slot;
+        final float[] scratch = new float[2];
+        final NeighborHeap heap = new NeighborHeap();
+    }
+
+    /**
+     * 按距离平方保留最近 cap 个邻居的最大堆，堆顶为当前保留的最远者
+     */
+    private static final class NeighborHeap {
+        float[] d2 = new float[16];
+        float[] dx = new float[16];
+        float[] dy = new float[16];
+        int size;
+        int cap;
+
+        void reset(int cap) {
+            this.cap = cap;
+            this.size = 0;
+            if (d2.length < cap) {
+                d2 = new float[cap];
+                dx = new float[cap];
+                dy = new float[cap];
+            }
+        }
+
+        void offer(float dist2, float ddx, float ddy) {
+            int i;
+            if (size < cap) {
+                i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (d2[parent] >= dist2) break;
+                    set(i, parent);
+                    i = parent;
+                }
+            } else if (dist2 < d2[0]) {
+                i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && d2[child + 1] > d2[child]) child++;
+                    if (d2[child] <= dist2) break;
+                    set(i, child);
+                    i = child;
+                }
+            } else {
+                return;
+            }
+            d2[i] = dist2;
+            dx[i] = ddx;
+            dy[i] = ddy;
+        }
+
+        private void set(int to, int from) {
+            d2[to] = d2[from];
+            dx[to] = dx[from];
+            dy[to] = dy[from];
+        }
+    }
+
+    /**
+     * @param pool 并行用的 fork/join 线程池，为 null 时始终串行
+     * @param parallelThreshold 关闭自动调优时，敌人数达到该值才并行
+     * @param batchSize 关闭自动调优时的切块大小，0 表示按线程数自动确定
+     * @param autoTune 是否按实测耗时自动选择串行/并行及切块大小
+     */
+    public AvoidanceSystem(ForkJoinPool pool, int parallelThreshold, int batchSize, boolean autoTune,
+                           float radius, float worldWidth, float worldHeight, FloatKernels kernels) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+        this.batchSize = batchSize;
+        this.tuner = autoTune && pool != null ? new ParallelTuner() : null;
+        this.radius = radius;
+        this.kernels = kernels;
+        // 格子边长等于避让半径，邻居只可能落在周围 3x3 个格子里
+        this.grid = new SpatialHashGrid(worldWidth, worldHeight, radius);
+        this.coarseGrid = new SpatialHashGrid(worldWidth, worldHeight, radius * 2);
+        int slots = (pool != null ? pool.getParallelism() : 0) + 2;
+        this.accX = new float[slots][];
+        this.accY = new float[slots][];
+    }
+
+    /**
+     * 开启后按固定分块与固定顺序归约，结果与线程数无关
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * 设置质量控制
+     * @param initial 初始质量等级
+     * @param maxNeighbors 有界模式下每个敌人的邻居上限
+     * @param budgetMs 避让每帧的耗时预算（毫秒）
+     * @param auto 是否按预算自动调节等级（结果会依赖机器速度，确定性模式下应关闭）
+     */
+    public void setQualityControl(Quality initial, int maxNeighbors, float budgetMs, boolean auto) {
+        this.quality = initial;
+        this.maxNeighbors = Math.max(1, maxNeighbors);
+        this.budgetNanos = (long) (budgetMs * 1_000_000L);
+        this.autoQuality = auto;
+        this.overBudget = 0;
+        this.underBudget = 0;
+    }
+
+    /**
+     * 对给定敌人计算避让并更新速度
+     */
+    public void update(List<GameObject> enemies, float deltaTime) {
+        count = enemies.size();
+        if (count == 0) return;
+        this.deltaTime = deltaTime;
+        snapshot(enemies);
+        activeGrid().build(xs, ys, count);
+        if (rowCapacity < count) {
+            rowCapacity = Math.max(count, rowCapacity * 2);
+        }
+
+        int choice = chooseGrain();
+        lastChoice = choice;
+        long start = System.nanoTime();
+        if (quality != Quality.FULL) {
+            updateBounded(choice);
+        } else if (deterministic) {
+            updateDeterministic(choice);
+        } else {
+            updateUnordered(choice);
+        }
+        lastNanos = System.nanoTime() - start;
+        // 调优器只记录完整质量的耗时，避免不同等级的开销混在一起
+        if (tuner != null && quality == Quality.FULL) {
+            tuner.record(count, choice, lastNanos);
+        }
+        adjustQuality(lastNanos);
+    }
+
+    private void adjustQuality(long nanos) {
+        if (!autoQuality) return;
+        if (nanos > budgetNanos) {
+            underBudget = 0;
+            if (++overBudget >= OVER_BUDGET_FRAMES && quality != Quality.COARSE) {
+                quality = Quality.values()[quality.ordinal() + 1];
+                overBudget = 0;
+            }
+        } else if (nanos < budgetNanos / 3) {
+            overBudget = 0;
+            if (++underBudget >= UNDER_BUDGET_FRAMES && quality != Quality.FULL) {
+                quality = Quality.values()[quality.ordinal() - 1];
+                underBudget = 0;
+            }
+        } else {
+            overBudget = 0;
+            underBudget = 0;
+        }
+    }
+
+    // COARSE 使用大格子网格，其余质量使用避让半径大小的网格
+    private SpatialHashGrid activeGrid() {
+        return quality == Quality.COARSE ? coarseGrid : grid;
+    }
+
+    /**
+     * 有界路径：每个敌人独立收集有限个邻居，只写自己的速度，不需要累加数组与归约，
+     * 结果与线程数无关
+     */
+    private void updateBounded(int choice) {
+        coarseParity ^= 1;
+        if (choice == ParallelTuner.SERIAL) {
+            applyBounded(0, count, serialScratch, serialHeap);
+        } else {
+            pool.invoke(new BoundedTask(0, count, choice));
+        }
+    }
+
+    private void applyBounded(int start, int end, float[] scratch, NeighborHeap heap) {
+        boolean coarse = quality == Quality.COARSE;
+        int cap = coarse ? Math.max(1, maxNeighbors / 2) : maxNeighbors;
+        float dt = coarse ? deltaTime * 2 : deltaTime;
+        SpatialHashGrid g = activeGrid();
+        int[] items = g.getItems();
+        for (int a = start; a < end; a++) {
+            // 按敌人编号奇偶轮换，每个敌人隔帧更新一次
+            if (coarse && (items[a] & 1) != coarseParity) continue;
+            gatherBounded(g, a, cap, heap, scratch);
+            steer(bodies[items[a]], scratch[0], scratch[1], dt);
+        }
+    }
+
+    /**
+     * 收集槽位 a 的避让力：扫描半径范围覆盖的格子（本格优先），最多检查 cap * SCAN_FACTOR 个候选，
+     * 用最大堆保留其中距离最近的 cap 个邻居。候选超过扫描上限时只在已扫描的候选中取最近者，
+     * 因此在极度拥挤时是近似的 k 近邻
+     */
+    private void gatherBounded(SpatialHashGrid g, int a, int cap, NeighborHeap heap, float[] out) {
+        float[] sortedX = g.getSortedX();
+        float[] sortedY = g.getSortedY();
+        out[0] = 0;
+        out[1] = 0;
+        float x = sortedX[a], y = sortedY[a];
+        if (Float.isNaN(x)) return;
+        heap.reset(cap);
+        float r2 = radius * radius;
+        int maxScan = cap * SCAN_FACTOR;
+        int cx = g.cellX(x), cy = g.cellY(y);
+        int scanned = scanCell(g, g.cellIndex(cx, cy), a, x, y, r2, heap, 0, maxScan);
+        int gx0 = g.cellX(x - radius), gx1 = g.cellX(x + radius);
+        int gy0 = g.cellY(y - radius), gy1 = g.cellY(y + radius);
+        for (int gy = gy0; gy <= gy1 && scanned < maxScan; gy++) {
+            for (int gx = gx0; gx <= gx1 && scanned < maxScan; gx++) {
+                if (gx == cx && gy == cy) continue;
+                scanned = scanCell(g, g.cellIndex(gx, gy), a, x, y, r2, heap, scanned, maxScan);
+            }
+        }
+        float fx = 0, fy = 0;
+        for (int i = 0; i < heap.size; i++) {
+            float d = (float) Math.sqrt(heap.d2[i]);
+            float scale = (radius - d) * GAIN / d;
+            fx += heap.dx[i] * scale;
+            fy += heap.dy[i] * scale;
+        }
+        out[0] = fx;
+        out[1] = fy;
+    }
+
+    /**
+     * 把格子中半径内的候选放入堆，返回累计扫描数
+     */
+    private static int scanCell(SpatialHashGrid g, int cell, int a, float x, float y, float r2,
+                                NeighborHeap heap, int scanned, int maxScan) {
+        float[] sortedX = g.getSortedX();
+        float[] sortedY = g.getSortedY();
+        for (int k = g.cellStart(cell), end = g.cellEnd(cell); k < end && scanned < maxScan; k++) {
+            if (k == a) continue;
+            scanned++;
+            float dx = x - sortedX[k];
+            float dy = y - sortedY[k];
+            float d2 = dx * dx + dy * dy;
+            if (d2 < r2 && d2 > 0) {
+                heap.offer(d2, dx, dy);
+            }
+        }
+        return scanned;
+    }
+
+    private void updateUnordered(int choice) {
+        epoch++;
+        slotCounter.set(0);
+        if (choice == ParallelTuner.SERIAL) {
+            int slot = claimSlot(workerState.get());
+            accumulate(0, count, slot, serialScratch);
+            apply(0, count, 1);
+        } else {
+            pool.invoke(new AccumulateTask(0, count, choice));
+            pool.invoke(new ApplyTask(0, count, choice, slotCounter.get()));
+        }
+    }
+
+    /**
+     * 确定性路径：分块边界固定为 DETERMINISTIC_CHUNK，与串行/并行方案无关，choice 只决定调度
+     */
+    private void updateDeterministic(int choice) {
+        prepareChunks();
+        if (choice == ParallelTuner.SERIAL) {
+            accumulateChunks(0, chunkCount, serialScratch);
+            applyOrdered(0, count);
+        } else {
+            int chunkGrain = Math.max(1, choice / DETERMINISTIC_CHUNK);
+            pool.invoke(new ChunkTask(0, chunkCount, chunkGrain));
+            pool.invoke(new ApplyTask(0, count, choice, -1));
+        }
+    }
+
+    /**
+     * 计算每块的累加窗口：块内所有槽位 3x3 邻域格子在网格中覆盖的范围。
+     * 邻域在换行处会回绕到上一行行首，窗口不随块号单调，需逐个槽位取最小/最大格子。
+     */
+    private void prepareChunks() {
+        chunkCount = (count + DETERMINISTIC_CHUNK - 1) / DETERMINISTIC_CHUNK;
+        if (chunkLo.length < chunkCount) {
+            int cap = Math.max(chunkCount, chunkLo.length * 2);
+            chunkLo = new int[cap];
+            chunkHi = new int[cap];
+            chunkBase = new int[cap + 1];
+        }
+        if (forceX.length < count) {
+            int cap = Math.max(count, forceX.length * 2);
+            forceX = new float[cap];
+            forceY = new float[cap];
+        }
+        float[] sortedX = grid.getSortedX();
+        float[] sortedY = grid.getSortedY();
+        int cols = grid.getCols(), rows = grid.getRows();
+        int total = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            int first = c * DETERMINISTIC_CHUNK;
+            int last = Math.min(first + DETERMINISTIC_CHUNK, count);
+            int minCell = Integer.MAX_VALUE, maxCell = 0;
+            for (int a = first; a < last; a++) {
+                int cx = grid.cellX(sortedX[a]), cy = grid.cellY(sortedY[a]);
+                minCell = Math.min(minCell, grid.cellIndex(Math.max(0, cx - 1), Math.max(0, cy - 1)));
+                maxCell = Math.max(maxCell, grid.cellIndex(Math.min(cols - 1, cx + 1), Math.min(rows - 1, cy + 1)));
+            }
+            chunkLo[c] = grid.cellStart(minCell);
+            chunkHi[c] = grid.cellEnd(maxCell);
+            chunkBase[c] = total;
+            total += chunkHi[c] - chunkLo[c];
+        }
+        chunkBase[chunkCount] = total;
+        if (chunkAccX.length < total) {
+            int cap = Math.max(total, chunkAccX.length * 2);
+            chunkAccX = new float[cap];
+            chunkAccY = new float[cap];
+        }
+    }
+
+    /**
+     * 依次处理 [c0, c1) 块，每块只写自己的窗口
+     */
+    private void accumulateChunks(int c0, int c1, float[] scratch) {
+        for (int c = c0; c < c1; c++) {
+            int base = chunkBase[c];
+            Arrays.fill(chunkAccX, base, chunkBase[c + 1], 0f);
+            Arrays.fill(chunkAccY, base, chunkBase[c + 1], 0f);
+            int start = c * DETERMINISTIC_CHUNK;
+            int end = Math.min(start + DETERMINISTIC_CHUNK, count);
+            accumulate(start, end, chunkAccX, chunkAccY, chunkLo[c] - base, scratch);
+        }
+    }
+
+    /**
+     * 对 [start, end) 槽位按块号从小到大累加各块窗口中的值，再更新速度
+     */
+    private void applyOrdered(int start, int end) {
+        Arrays.fill(forceX, start, end, 0f);
+        Arrays.fill(forceY, start, end, 0f);
+        for (int c = 0; c < chunkCount; c++) {
+            int from = Math.max(start, chunkLo[c]);
+            int to = Math.min(end, chunkHi[c]);
+            int shift = chunkBase[c] - chunkLo[c];
+            for (int a = from; a < to; a++) {
+                forceX[a] += chunkAccX[a + shift];
+                forceY[a] += chunkAccY[a + shift];
+            }
+        }
+        int[] items = grid.getItems();
+        for (int a = start; a < end; a++) {
+            steer(bodies[items[a]], forceX[a], forceY[a], deltaTime);
+        }
+    }
+
+    private int chooseGrain() {
+        if (pool == null) return ParallelTuner.SERIAL;
+        if (tuner != null) return tuner.choose(count);
+        if (count < parallelThreshold) return ParallelTuner.SERIAL;
+        return batchSize > 0 ? batchSize : Math.max(16, count / (pool.getParallelism() * 4));
+    }
+
+    private void snapshot(List<GameObject> enemies) {
+        if (xs.length < count) {
+            int cap = Math.max(count, xs.length * 2);
+            xs = new float[cap];
+            ys = new float[cap];
+            bodies = new PhysicsComponent[cap];
+        }
+        for (int i = 0; i < count; i++) {
+            GameObject enemy = enemies.get(i);
+            TransformComponent transform = enemy.getComponent(TransformComponent.class);
+            // 没有变换组件的敌人记为 NaN，不会命中任何距离判断
+            xs[i] = transform != null ? transform.getX() : Float.NaN;
+            ys[i] = transform != null ? transform.getY() : Float.NaN;
+            bodies[i] = enemy.getComponent(PhysicsComponent.class);
+        }
+    }
+
+    /**
+     * 当前线程本帧首次参与时领取一个累加槽并清零
+     */
+    private int claimSlot(WorkerState state) {
+        if (state.epoch != epoch) {
+            state.epoch = epoch;
+            state.slot = slotCounter.getAndIncrement();
+            ensureRow(state.slot);
+            Arrays.fill(accX[state.slot], 0, count, 0f);
+            Arrays.fill(accY[state.slot], 0, count, 0f);
+        }
+        return state.slot;
+    }
+
+    private synchronized void ensureRow(int slot) {
+        if (slot >= accX.length) {
+            float[][] nx = Arrays.copyOf(accX, Math.max(slot + 1, accX.length * 2));
+            float[][] ny = Arrays.copyOf(accY, nx.length);
+            accY = ny;
+            accX = nx;
+        }
+        if (accX[slot] == null || accX[slot].length < rowCapacity) {
+            accX[slot] = new float[rowCapacity];
+            accY[slot] = new float[rowCapacity];
+        }
+    }
+
+    /**
+     * 第一阶段：处理 [start, end) 槽位，作用力与反作用力写入 slot 对应的累加数组
+     */
+    private void accumulate(int start, int end, int slot, float[] scratch) {
+        accumulate(start, end, accX[slot], accY[slot], 0, scratch);
+    }
+
+    /**
+     * 处理 [start, end) 槽位，槽位 k 的累加值写在 myX/myY 的 k - offset 处
+     */
+    private void accumulate(int start, int end, float[] myX, float[] myY, int offset, float[] scratch) {
+        float[] sortedX = grid.getSortedX();
+        float[] sortedY = grid.getSortedY();
+        int[] items = grid.getItems();
+        for (int a = start; a < end; a++) {
+            float x = sortedX[a];
+            float y = sortedY[a];
+            if (Float.isNaN(x)) continue;
+            int cx = grid.cellX(x);
+            int cy = grid.cellY(y);
+            int minX = Math.max(0, cx - 1), maxX = Math.min(grid.getCols() - 1, cx + 1);
+            int minY = Math.max(0, cy - 1), maxY = Math.min(grid.getRows() - 1, cy + 1);
+            scratch[0] = 0;
+            scratch[1] = 0;
+            // 同一行相邻格子在网格中连续存放，每行一次内核调用；只处理编号更大的邻居，每对只算一次
+            for (int gy = minY; gy <= maxY; gy++) {
+                int from = grid.cellStart(grid.cellIndex(minX, gy));
+                int to = grid.cellEnd(grid.cellIndex(maxX, gy));
+                kernels.accumulatePairwise(x, y, sortedX, sortedY, items, items[a], from, to,
+                        radius, GAIN, scratch, myX, myY, offset);
+            }
+            myX[a - offset] += scratch[0];
+            myY[a - offset] += scratch[1];
+        }
+    }
+
+    /**
+     * 第二阶段：归约 [start, end) 槽位上所有线程的累加值，并更新对应敌人的速度
+     */
+    private void apply(int start, int end, int slots) {
+        int[] items = grid.getItems();
+        float[][] rowsX = accX;
+        float[][] rowsY = accY;
+        for (int a = start; a < end; a++) {
+            float fx = 0, fy = 0;
+            for (int t = 0; t < slots; t++) {
+                fx += rowsX[t][a];
+                fy += rowsY[t][a];
+            }
+            steer(bodies[items[a]], fx, fy, deltaTime);
+        }
+    }
+
+    private void steer(PhysicsComponent body, float fx, float fy, float deltaTime) {
+        if (body == null) return;
+        float magnitude = (float) Math.sqrt(fx * fx + fy * fy);
+        if (magnitude <= 0) return;
+
+        float steer = Math.min(magnitude, MAX_STEER) * deltaTime * 10 / magnitude;
+        float vx = body.getVelocityX() + fx * steer;
+        float vy = body.getVelocityY() + fy * steer;
+        float speed = (float) Math.sqrt(vx * vx + vy * vy);
+        if (speed > MAX_SPEED) {
+            vx = vx / speed * MAX_SPEED;
+            vy = vy / speed * MAX_SPEED;
+        }
+        body.setVelocity(vx, vy);
+    }
+
+    private class AccumulateTask extends RecursiveAction {
+        private final int start, end, grain;
+
+        AccumulateTask(int start, int end, int grain) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            // 区间大于粒度且本线程队列里待窃取的任务不多时继续对半切分
+            if (end - start > grain && getSurplusQueuedTaskCount() <= 2) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new AccumulateTask(start, mid, grain), new AccumulateTask(mid, end, grain));
+                return;
+            }
+            WorkerState state = workerState.get();
+            accumulate(start, end, claimSlot(state), state.scratch);
+        }
+    }
+
+    private class BoundedTask extends RecursiveAction {
+        private final int start, end, grain;
+
+        BoundedTask(int start, int end, int grain) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > grain && getSurplusQueuedTaskCount() <= 2) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new BoundedTask(start, mid, grain), new BoundedTask(mid, end, grain));
+                return;
+            }
+            WorkerState state = workerState.get();
+            applyBounded(start, end, state.scratch, state.heap);
+        }
+    }
+
+    /**
+     * 确定性模式的第一阶段：按块号区间切分，块内边界固定
+     */
+    private class ChunkTask extends RecursiveAction {
+        private final int c0, c1, grain;
+
+        ChunkTask(int c0, int c1, int grain) {
+            this.c0 = c0;
+            this.c1 = c1;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (c1 - c0 > grain && getSurplusQueuedTaskCount() <= 2) {
+                int mid = (c0 + c1) >>> 1;
+                invokeAll(new ChunkTask(c0, mid, grain), new ChunkTask(mid, c1, grain));
+                return;
+            }
+            accumulateChunks(c0, c1, workerState.get().scratch);
+        }
+    }
+
+    /**
+     * 第二阶段；slots 为 -1 时按确定性模式的块顺序归约
+     */
+    private class ApplyTask extends RecursiveAction {
+        private final int start, end, grain, slots;
+
+        ApplyTask(int start, int end, int grain, int slots) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.slots = slots;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > grain && getSurplusQueuedTaskCount() <= 2) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new ApplyTask(start, mid, grain, slots), new ApplyTask(mid, end, grain, slots));
+                return;
+            }
+            if (slots < 0) {
+                applyOrdered(start, end);
+            } else {
+                apply(start, end, slots);
+            }
+        }
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * 当前生效的质量等级
+     */
+    public Quality getQuality() {
+        return quality;
+    }
+
+    /**
+     * 上一帧避让耗时（纳秒）
+     */
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    /**
+     * 上一帧采用的方案：0 表示串行，否则为并行切块大小
+     */
+    public int getLastChoice() {
+        return lastChoice;
+    }
+
+    /**
+     * 自动调优估计的串行/并行分界点，未启用或尚无结论时返回 -1
+     */
+    public int getEstimatedCutoff() {
+        return tuner != null ? tuner.getEstimatedCutoff() : -1;
+    }
+}
@@ -0,0 +1,134 @@
+package com.gameengine.physics;
+
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+import com.gameengine.scene.Scene;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 边界消失系统：一次遍历所有候选对象，离开保留区域的对象收集到复用缓冲区，
+ * 最后一次性提交给场景批量移除。候选列表只在场景结构变化时重建，每帧不做组件查找。
+ * 边界反弹与夹紧仍由 PhysicsSystem 在积分后完成。
+ */
+public class BoundsSystem {
+    private final Predicate<GameObject> filter;
+    private float keepMinX = Float.NEGATIVE_INFINITY;
+    private float keepMinY = Float.NEGATIVE_INFINITY;
+    private float keepMaxX = Float.POSITIVE_INFINITY;
+    private float keepMaxY = Float.POSITIVE_INFINITY;
+
+    private GameObject[] objects = new GameObject[64];
+    private TransformComponent[] transforms = new TransformComponent[64];
+    private int count;
+    private int cachedVersion = -1;
+    private Scene cachedScene;
+
+    private GameObject[] despawnBuffer = new GameObject[64];
+    private float[] despawnX = new float[64];
+    private float[] despawnY = new float[64];
+    private int lastDespawnCount;
+    private long totalDespawned;
+
+    /**
+     * @param filter 哪些对象参与边界消失判断，只在场景结构变化时调用
+     */
+    public BoundsSystem(Predicate<GameObject> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * 设置保留区域，对象位置不严格位于区域内部时消失；不需要限制的方向传入正负无穷
+     */
+    public void setKeepRegion(float minX, float minY, float maxX, float maxY) {
+        this.keepMinX = minX;
+        this.keepMinY = minY;
+        this.keepMaxX = maxX;
+        this.keepMaxY = maxY;
+    }
+
+    /**
+     * 检查所有候选对象并批量移除离开区域的对象，返回本帧消失数量
+     */
+    public int update(Scene scene) {
+        if (scene != cachedScene || scene.getStructureVersion() != cachedVersion) {
+            rebuild(scene);
+        }
+        int despawned = 0;
+        for (int i = 0; i < count; i++) {
+            GameObject obj = objects[i];
+            if (!obj.isActive()) continue;
+            TransformComponent transform = transforms[i];
+            float x = transform.getX(), y = transform.getY();
+            // 写成“在内部”的取反，NaN 坐标同样视为离开
+            if (!(x > keepMinX && x < keepMaxX && y > keepMinY && y < keepMaxY)) {
+                despawnX[despawned] = x;
+                despawnY[despawned] = y;
+                despawnBuffer[despawned++] = obj;
+            }
+        }
+        if (despawned > 0) {
+            scene.removeGameObjects(despawnBuffer, despawned);
+            Arrays.fill(despawnBuffer, 0, despawned, null);
+        }
+        lastDespawnCount = despawned;
+        totalDespawned += despawned;
+        return despawned;
+    }
+
+    private void rebuild(Scene scene) {
+        List<GameObject> all = scene.getGameObjectsView();
+        if (objects.length < all.size()) {
+            int cap = Math.max(all.size(), objects.length * 2);
+            objects = new GameObject[cap];
+            transforms = new TransformComponent[cap];
+            despawnBuffer = new GameObject[cap];
+            despawnX = new float[cap];
+            despawnY = new float[cap];
+        }
+        int previousCount = count;
+        count = 0;
+        for (int i = 0; i < all.size(); i++) {
+            GameObject obj = all.get(i);
+            if (!filter.test(obj)) continue;
+            TransformComponent transform = obj.getComponent(TransformComponent.class);
+            if (transform == null) continue;
+            objects[count] = obj;
+            transforms[count] = transform;
+            count++;
+        }
+        for (int i = count; i < previousCount; i++) {
+            objects[i] = null;
+            transforms[i] = null;
+        }
+        cachedScene = scene;
+        cachedVersion = scene.getStructureVersion();
+    }
+
+    /**
+     * 上一帧消失的对象数量
+     */
+    public int getLastDespawnCount() {
+        return lastDespawnCount;
+    }
+
+    /**
+     * 上一帧第 i 个消失对象的位置，用于消失特效等
+     */
+    public float getDespawnX(int i) {
+        return despawnX[i];
+    }
+
+    public float getDespawnY(int i) {
+        return despawnY[i];
+    }
+
+    /**
+     * 累计消失的对象数量
+     */
+    public long getTotalDespawned() {
+        return totalDespawned;
+    }
+}
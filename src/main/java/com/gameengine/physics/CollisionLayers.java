@@ -0,0 +1,22 @@
+package com.gameengine.physics;
+
+/**
+ * 碰撞层位掩码定义。两个碰撞体只有在彼此的 layer 都落在对方 mask 中时才会产生接触。
+ */
+public final class CollisionLayers {
+    public static final int NONE = 0;
+    public static final int PLAYER = 1;
+    public static final int ENEMY = 1 << 1;
+    public static final int PROJECTILE = 1 << 2;
+    public static final int PICKUP = 1 << 3;
+    public static final int ALL = 0xFFFFFFFF;
+
+    private CollisionLayers() {}
+
+    /**
+     * 判断两组 layer/mask 是否允许碰撞
+     */
+    public static boolean canCollide(int layerA, int maskA, int layerB, int maskB) {
+        return (layerA & maskB) != 0 && (layerB & maskA) != 0;
+    }
+}
@@ -0,0 +1,414 @@
+package com.gameengine.physics;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+import com.gameengine.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 碰撞系统：每帧一次 sort-and-sweep 粗检测 + 圆/AABB 精确检测，
+ * 结果以接触对列表提供给所有关心碰撞的系统，避免各自重复扫描。
+ */
+public class CollisionSystem {
+    /**
+     * 一次接触，法线由 a 指向 b
+     */
+    public static class Contact {
+        public GameObject a;
+        public GameObject b;
+        public float normalX;
+        public float normalY;
+        public float depth;
+    }
+
+    private final List<Contact> contactPool = new ArrayList<>();
+    private int contactCount;
+
+    // 每帧的碰撞体快照（扁平数组）
+    private GameObject[] owners = new GameObject[64];
+    private boolean[] circle = new boolean[64];
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    // 与上一帧快照相比的位移，用于扫掠检测
+    private float[] moveX = new float[64];
+    private float[] moveY = new float[64];
+    private int[] layers = new int[64];
+    private int[] masks = new int[64];
+    private long[] sortKeys = new long[64];
+    private int[] order = new int[64];
+    private float[] sortedMinX = new float[64];
+    private int count;
+    private float maxWidth;
+    private int frame;
+
+    // 场景中的碰撞体及其变换，只在场景结构变化时重建
+    private ColliderComponent[] colliders = new ColliderComponent[64];
+    private TransformComponent[] transforms = new TransformComponent[64];
+    private int colliderCount;
+    private int cachedVersion = -1;
+    private Scene cachedScene;
+
+    /**
+     * 收集场景中的碰撞体并计算本帧的全部接触对
+     */
+    public void update(Scene scene) {
+        frame++;
+        if (scene != cachedScene || scene.getStructureVersion() != cachedVersion) {
+            rebuild(scene);
+        }
+        ensureCapacity(colliderCount);
+        int previousCount = count;
+        count = 0;
+        maxWidth = 0;
+        for (int c = 0; c < colliderCount; c++) {
+            ColliderComponent collider = colliders[c];
+            GameObject owner = collider.getOwner();
+            if (!collider.isEnabled() || owner == null || !owner.isActive()) {
+                collider.resetSweep();
+                continue;
+            }
+            TransformComponent transform = transforms[c];
+            if (transform == null) continue;
+            store(count++, owner, collider, transform.getX(), transform.getY());
+        }
+        if (previousCount > count) {
+            Arrays.fill(owners, count, previousCount, null);
+        }
+        sortByMinX();
+        sweep();
+    }
+
+    private void rebuild(Scene scene) {
+        List<GameObject> all = scene.getGameObjectsView();
+        if (colliders.length < all.size()) {
+            int cap = Math.max(all.size(), colliders.length * 2);
+            colliders = new ColliderComponent[cap];
+            transforms = new TransformComponent[cap];
+        }
+        int previousCount = colliderCount;
+        colliderCount = 0;
+        for (int i = 0; i < all.size(); i++) {
+            GameObject obj = all.get(i);
+            ColliderComponent collider = obj.getComponent(ColliderComponent.class);
+            if (collider == null) continue;
+            colliders[colliderCount] = collider;
+            transforms[colliderCount] = obj.getComponent(TransformComponent.class);
+            colliderCount++;
+        }
+        for (int i = colliderCount; i < previousCount; i++) {
+            colliders[i] = null;
+            transforms[i] = null;
+        }
+        cachedScene = scene;
+        cachedVersion = scene.getStructureVersion();
+    }
+
+    private void store(int i, GameObject owner, ColliderComponent collider, float x, float y) {
+        float offsetX = collider.getOffsetX(), offsetY = collider.getOffsetY();
+        float sizeX = collider.getSizeX(), sizeY = collider.getSizeY();
+        owners[i] = owner;
+        layers[i] = collider.getLayer();
+        masks[i] = collider.getMask();
+        float refX = x + offsetX, refY = y + offsetY;
+        if (collider.hasSweep()) {
+            moveX[i] = refX - collider.getSweepX();
+            moveY[i] = refY - collider.getSweepY();
+        } else {
+            moveX[i] = 0;
+            moveY[i] = 0;
+        }
+        collider.recordSweep(refX, refY);
+        if (collider.getShape() == ColliderComponent.Shape.CIRCLE) {
+            float r = sizeX / 2;
+            circle[i] = true;
+            minX[i] = refX - r;
+            minY[i] = refY - r;
+            maxX[i] = refX + r;
+            maxY[i] = refY + r;
+        } else {
+            circle[i] = false;
+            minX[i] = refX;
+            minY[i] = refY;
+            maxX[i] = minX[i] + sizeX;
+            maxY[i] = minY[i] + sizeY;
+        }
+        maxWidth = Math.max(maxWidth, maxX[i] - minX[i]);
+    }
+
+    private void ensureCapacity(int n) {
+        if (owners.length >= n) return;
+        int cap = Math.max(n, owners.length * 2);
+        owners = new GameObject[cap];
+        circle = new boolean[cap];
+        minX = new float[cap];
+        minY = new float[cap];
+        maxX = new float[cap];
+        maxY = new float[cap];
+        moveX = new float[cap];
+        moveY = new float[cap];
+        layers = new int[cap];
+        masks = new int[cap];
+        sortKeys = new long[cap];
+        order = new int[cap];
+        sortedMinX = new float[cap];
+    }
+
+    /**
+     * 将 minX 编码为可排序的整数放在高 32 位、下标放在低 32 位，用原始类型排序避免装箱
+     */
+    private void sortByMinX() {
+        for (int i = 0; i < count; i++) {
+            sortKeys[i] = ((long) sortableBits(minX[i]) << 32) | i;
+        }
+        Arrays.sort(sortKeys, 0, count);
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) sortKeys[i];
+            sortedMinX[i] = minX[order[i]];
+        }
+    }
+
+    private static int sortableBits(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    private void sweep() {
+        contactCount = 0;
+        for (int s = 0; s < count; s++) {
+            int i = order[s];
+            for (int t = s + 1; t < count; t++) {
+                int j = order[t];
+                if (minX[j] > maxX[i]) break;
+                if (minY[j] > maxY[i] || maxY[j] < minY[i]) continue;
+                if (!CollisionLayers.canCollide(layers[i], masks[i], layers[j], masks[j])) continue;
+                narrowPhase(i, j);
+            }
+        }
+    }
+
+    private void narrowPhase(int i, int j) {
+        if (circle[i] && circle[j]) {
+            float ri = (maxX[i] - minX[i]) / 2, rj = (maxX[j] - minX[j]) / 2;
+            float dx = (minX[j] + rj) - (minX[i] + ri);
+            float dy = (minY[j] + rj) - (minY[i] + ri);
+            float rs = ri + rj;
+            float d2 = dx * dx + dy * dy;
+            if (d2 >= rs * rs) return;
+            float d = (float) Math.sqrt(d2);
+            if (d > 0) addContact(i, j, dx / d, dy / d, rs - d);
+            else addContact(i, j, 1, 0, rs);
+        } else if (!circle[i] && !circle[j]) {
+            float ox = Math.min(maxX[i], maxX[j]) - Math.max(minX[i], minX[j]);
+            float oy = Math.min(maxY[i], maxY[j]) - Math.max(minY[i], minY[j]);
+            if (ox <= 0 || oy <= 0) return;
+            if (ox < oy) {
+                addContact(i, j, (minX[j] + maxX[j]) > (minX[i] + maxX[i]) ? 1 : -1, 0, ox);
+            } else {
+                addContact(i, j, 0, (minY[j] + maxY[j]) > (minY[i] + maxY[i]) ? 1 : -1, oy);
+            }
+        } else {
+            int c = circle[i] ? i : j;
+            int b = circle[i] ? j : i;
+            float r = (maxX[c] - minX[c]) / 2;
+            float cx = minX[c] + r, cy = minY[c] + r;
+            float px = Math.max(minX[b], Math.min(cx, maxX[b]));
+            float py = Math.max(minY[b], Math.min(cy, maxY[b]));
+            float dx = px - cx, dy = py - cy;
+            float d2 = dx * dx + dy * dy;
+            if (d2 >= r * r) return;
+            float d = (float) Math.sqrt(d2);
+            float nx = d > 0 ? dx / d : 0, ny = d > 0 ? dy / d : -1;
+            // 法线统一从 i 指向 j
+            if (c == j) {
+                nx = -nx;
+                ny = -ny;
+            }
+            addContact(i, j, nx, ny, r - d);
+        }
+    }
+
+    private void addContact(int i, int j, float nx, float ny, float depth) {
+        if (contactCount == contactPool.size()) {
+            contactPool.add(new Contact());
+        }
+        Contact c = contactPool.get(contactCount++);
+        c.a = owners[i];
+        c.b = owners[j];
+        c.normalX = nx;
+        c.normalY = ny;
+        c.depth = depth;
+    }
+
+    /**
+     * 本帧接触对数量
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * 获取第 i 个接触对（对象复用，仅在下一次 update 前有效）
+     */
+    public Contact getContact(int i) {
+        if (i < 0 || i >= contactCount) throw new IndexOutOfBoundsException("contact " + i);
+        return contactPool.get(i);
+    }
+
+    /**
+     * 判断对象本帧是否与指定层的任一对象接触
+     */
+    public boolean hasContact(GameObject obj, int otherLayers) {
+        for (int k = 0; k < contactCount; k++) {
+            Contact c = contactPool.get(k);
+            GameObject other = c.a == obj ? c.b : (c.b == obj ? c.a : null);
+            if (other == null) continue;
+            ColliderComponent collider = other.getComponent(ColliderComponent.class);
+            if (collider != null && (collider.getLayer() & otherLayers) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 扫掠检测：判断对象本帧从上一帧位置运动到当前位置的过程中，是否与指定层的任一对象接触过。
+     * 在对方的参考系中把双方的相对位移看作一条线段，圆与圆按半径之和求线段到圆心的距离，
+     * 涉及 AABB 时把对方的包围盒按自身半宽高（圆为半径）膨胀后做线段与盒相交，拐角处略偏保守。
+     * 每帧离散检测会漏掉的高速穿越由它补上，代价是对快照做一次线性扫描。
+     */
+    public boolean sweptContact(GameObject obj, int otherLayers) {
+        int i = indexOf(obj);
+        if (i < 0) return false;
+        float hx = (maxX[i] - minX[i]) / 2, hy = (maxY[i] - minY[i]) / 2;
+        float cx = minX[i] + hx, cy = minY[i] + hy;
+        for (int j = 0; j < count; j++) {
+            if (j == i || (layers[j] & otherLayers) == 0) continue;
+            if (!CollisionLayers.canCollide(layers[i], masks[i], layers[j], masks[j])) continue;
+            // 相对位移：在 j 的参考系中，i 的中心从 (sx, sy) 移动到 (cx, cy) 相对 j 的当前位置
+            float rx = moveX[i] - moveX[j], ry = moveY[i] - moveY[j];
+            if (rx == 0 && ry == 0) continue;
+            float sx = cx - rx, sy = cy - ry;
+            float hxj = (maxX[j] - minX[j]) / 2, hyj = (maxY[j] - minY[j]) / 2;
+            float jx = minX[j] + hxj, jy = minY[j] + hyj;
+            // 扫掠包围盒粗筛
+            if (Math.min(sx, cx) - hx > jx + hxj || Math.max(sx, cx) + hx < jx - hxj
+                    || Math.min(sy, cy) - hy > jy + hyj || Math.max(sy, cy) + hy < jy - hyj) continue;
+            boolean hit;
+            if (circle[i] && circle[j]) {
+                hit = segmentHitsCircle(sx, sy, rx, ry, jx, jy, hx + hxj);
+            } else {
+                hit = segmentHitsBox(sx, sy, rx, ry, jx - hxj - hx, jy - hyj - hy, jx + hxj + hx, jy + hyj + hy);
+            }
+            if (hit) return true;
+        }
+        return false;
+    }
+
+    private int indexOf(GameObject obj) {
+        for (int k = 0; k < count; k++) {
+            if (owners[k] == obj) return k;
+        }
+        return -1;
+    }
+
+    /**
+     * 线段 (sx, sy) + t·(dx, dy)，t∈[0,1] 是否进入以 (ox, oy) 为圆心、半径 r 的圆
+     */
+    private static boolean segmentHitsCircle(float sx, float sy, float dx, float dy, float ox, float oy, float r) {
+        float fx = ox - sx, fy = oy - sy;
+        float len2 = dx * dx + dy * dy;
+        float t = Math.max(0f, Math.min(1f, (fx * dx + fy * dy) / len2));
+        float ex = sx + dx * t - ox, ey = sy + dy * t - oy;
+        return ex * ex + ey * ey < r * r;
+    }
+
+    /**
+     * 线段 (sx, sy) + t·(dx, dy)，t∈[0,1] 是否与盒相交（分轴裁剪）
+     */
+    private static boolean segmentHitsBox(float sx, float sy, float dx, float dy,
+                                          float bMinX, float bMinY, float bMaxX, float bMaxY) {
+        float tMin = 0f, tMax = 1f;
+        if (dx == 0) {
+            if (sx <= bMinX || sx >= bMaxX) return false;
+        } else {
+            float inv = 1f / dx;
+            float t1 = (bMinX - sx) * inv, t2 = (bMaxX - sx) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (sy <= bMinY || sy >= bMaxY) return false;
+        } else {
+            float inv = 1f / dy;
+            float t1 = (bMinY - sy) * inv, t2 = (bMaxY - sy) * inv;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin < tMax;
+    }
+
+    /**
+     * 查询以 (x, y) 为圆心、半径 r 的圆是否与本帧快照中允许碰撞的碰撞体重叠。
+     * 借助按 minX 排序的数组二分定位候选区间，不会修改接触列表。
+     */
+    public boolean overlapsCircle(float x, float y, float r, int layer, int mask, GameObject ignore) {
+        float qMinX = x - r, qMaxX = x + r, qMinY = y - r, qMaxY = y + r;
+        int start = lowerBound(qMinX - maxWidth);
+        for (int s = start; s < count && sortedMinX[s] <= qMaxX; s++) {
+            int j = order[s];
+            if (owners[j] == ignore) continue;
+            if (maxX[j] < qMinX || minY[j] > qMaxY || maxY[j] < qMinY) continue;
+            if (!CollisionLayers.canCollide(layer, mask, layers[j], masks[j])) continue;
+            if (circle[j]) {
+                float rj = (maxX[j] - minX[j]) / 2;
+                float dx = minX[j] + rj - x, dy = minY[j] + rj - y;
+                float rs = r + rj;
+                if (dx * dx + dy * dy < rs * rs) return true;
+            } else {
+                float px = Math.max(minX[j], Math.min(x, maxX[j]));
+                float py = Math.max(minY[j], Math.min(y, maxY[j]));
+                float dx = px - x, dy = py - y;
+                if (dx * dx + dy * dy < r * r) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 把本帧快照中允许与 (layer, mask) 碰撞的碰撞体按 clearance 膨胀后标记到占用网格，
+     * 标记后空闲格子内半径为 clearance 的圆不会与它们重叠
+     */
+    public void rasterize(OccupancyGrid grid, int layer, int mask, GameObject ignore, float clearance) {
+        for (int j = 0; j < count; j++) {
+            if (owners[j] == ignore) continue;
+            if (!CollisionLayers.canCollide(layer, mask, layers[j], masks[j])) continue;
+            if (circle[j]) {
+                float rj = (maxX[j] - minX[j]) / 2;
+                grid.markCircle(minX[j] + rj, minY[j] + rj, rj + clearance);
+            } else {
+                grid.markRect(minX[j] - clearance, minY[j] - clearance, maxX[j] + clearance, maxY[j] + clearance);
+            }
+        }
+    }
+
+    /**
+     * update 的调用次数，快照变化时递增，供派生数据判断是否过期
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    private int lowerBound(float value) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedMinX[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
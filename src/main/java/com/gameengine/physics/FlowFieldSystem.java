@@ -0,0 +1,205 @@
+package com.gameengine.physics;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 流场寻路：以目标（玩家）所在格子为源做一次广度优先搜索得到整张距离场，
+ * 再为每个格子预先算出指向距离更小的邻格的单位方向。所有追踪者共用这张场，
+ * 每个追踪者只需按所在格子查一次方向（O(1)），成千上万个追踪者与一个的寻路开销相同。
+ * 只有目标换格或障碍变化时才重算；障碍格不可通行，斜向移动不允许穿过障碍的拐角。
+ */
+public class FlowFieldSystem {
+    private static final float DIAGONAL = 0.70710678f;
+
+    private final float cellSize;
+    private final float invCellSize;
+    private final int cols;
+    private final int rows;
+    private final boolean[] blocked;
+    private final int[] distance;
+    private final int[] queue;
+    private final float[] dirX;
+    private final float[] dirY;
+
+    private int targetCell = -1;
+    private float targetX;
+    private float targetY;
+    private boolean dirty = true;
+    private int recomputeCount;
+    private final float[] sample = new float[2];
+
+    public FlowFieldSystem(float worldWidth, float worldHeight, float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / cellSize));
+        int cells = cols * rows;
+        this.blocked = new boolean[cells];
+        this.distance = new int[cells];
+        this.queue = new int[cells];
+        this.dirX = new float[cells];
+        this.dirY = new float[cells];
+    }
+
+    /**
+     * 把与矩形相交的格子标记为障碍（或取消），下一次 update 时重算
+     */
+    public void setBlocked(float minX, float minY, float maxX, float maxY, boolean value) {
+        int minCx = cellX(minX), maxCx = cellX(maxX);
+        int minCy = cellY(minY), maxCy = cellY(maxY);
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                blocked[cy * cols + cx] = value;
+            }
+        }
+        dirty = true;
+    }
+
+    public void clearBlocked() {
+        Arrays.fill(blocked, false);
+        dirty = true;
+    }
+
+    /**
+     * 更新目标位置，目标换格或障碍变化时重算流场，返回是否重算
+     */
+    public boolean update(float x, float y) {
+        targetX = x;
+        targetY = y;
+        int cell = cellY(y) * cols + cellX(x);
+        if (!dirty && cell == targetCell) return false;
+        targetCell = cell;
+        dirty = false;
+        compute();
+        recomputeCount++;
+        return true;
+    }
+
+    /**
+     * 查询 (x, y) 处朝向目标的单位方向写入 out；目标所在格直接指向目标，不可达时为 0
+     */
+    public void sample(float x, float y, float[] out) {
+        int cell = cellY(y) * cols + cellX(x);
+        if (cell == targetCell) {
+            float dx = targetX - x, dy = targetY - y;
+            float len = (float) Math.sqrt(dx * dx + dy * dy);
+            out[0] = len > 0 ? dx / len : 0;
+            out[1] = len > 0 ? dy / len : 0;
+            return;
+        }
+        out[0] = dirX[cell];
+        out[1] = dirY[cell];
+    }
+
+    /**
+     * 沿流场方向给追踪者加速，速度不超过 maxSpeed
+     */
+    public void steer(List<GameObject> followers, float acceleration, float maxSpeed, float deltaTime) {
+        float gain = acceleration * deltaTime;
+        for (int i = 0; i < followers.size(); i++) {
+            GameObject obj = followers.get(i);
+            TransformComponent transform = obj.getComponent(TransformComponent.class);
+            PhysicsComponent body = obj.getComponent(PhysicsComponent.class);
+            if (transform == null || body == null) continue;
+            sample(transform.getX(), transform.getY(), sample);
+            float vx = body.getVelocityX() + sample[0] * gain;
+            float vy = body.getVelocityY() + sample[1] * gain;
+            float speed = (float) Math.sqrt(vx * vx + vy * vy);
+            if (speed > maxSpeed) {
+                vx = vx / speed * maxSpeed;
+                vy = vy / speed * maxSpeed;
+            }
+            body.setVelocity(vx, vy);
+        }
+    }
+
+    private void compute() {
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        int headIdx = 0, tail = 0;
+        if (!blocked[targetCell]) {
+            distance[targetCell] = 0;
+            queue[tail++] = targetCell;
+        }
+        // 四邻接广度优先得到步数距离
+        while (headIdx < tail) {
+            int cell = queue[headIdx++];
+            int cx = cell % cols, cy = cell / cols;
+            int d = distance[cell] + 1;
+            if (cx > 0) tail = visit(cell - 1, d, tail);
+            if (cx < cols - 1) tail = visit(cell + 1, d, tail);
+            if (cy > 0) tail = visit(cell - cols, d, tail);
+            if (cy < rows - 1) tail = visit(cell + cols, d, tail);
+        }
+        // 每格指向八邻域中距离最小的可达邻格
+        for (int cy = 0; cy < rows; cy++) {
+            for (int cx = 0; cx < cols; cx++) {
+                int cell = cy * cols + cx;
+                int best = distance[cell];
+                int bestDx = 0, bestDy = 0;
+                for (int dy = -1; dy <= 1; dy++) {
+                    int ny = cy + dy;
+                    if (ny < 0 || ny >= rows) continue;
+                    for (int dx = -1; dx <= 1; dx++) {
+                        int nx = cx + dx;
+                        if ((dx == 0 && dy == 0) || nx < 0 || nx >= cols) continue;
+                        boolean diagonal = dx != 0 && dy != 0;
+                        if (diagonal && (blocked[cy * cols + nx] || blocked[ny * cols + cx])) continue;
+                        int d = distance[ny * cols + nx];
+                        // 距离相同时优先直行邻格，减少锯齿
+                        boolean bestDiagonal = bestDx != 0 && bestDy != 0;
+                        if (d < best || (d == best && bestDiagonal && !diagonal)) {
+                            best = d;
+                            bestDx = dx;
+                            bestDy = dy;
+                        }
+                    }
+                }
+                float scale = bestDx != 0 && bestDy != 0 ? DIAGONAL : 1f;
+                dirX[cell] = bestDx * scale;
+                dirY[cell] = bestDy * scale;
+            }
+        }
+    }
+
+    private int visit(int cell, int d, int tail) {
+        if (blocked[cell] || distance[cell] != Integer.MAX_VALUE) return tail;
+        distance[cell] = d;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    private int cellX(float x) {
+        int cx = (int) Math.floor(x * invCellSize);
+        return cx < 0 ? 0 : (cx >= cols ? cols - 1 : cx);
+    }
+
+    private int cellY(float y) {
+        int cy = (int) Math.floor(y * invCellSize);
+        return cy < 0 ? 0 : (cy >= rows ? rows - 1 : cy);
+    }
+
+    /**
+     * (x, y) 所在格子到目标的步数，不可达时返回 -1
+     */
+    public int getDistance(float x, float y) {
+        int d = distance[cellY(y) * cols + cellX(x)];
+        return d == Integer.MAX_VALUE ? -1 : d;
+    }
+
+    /**
+     * 流场累计重算次数
+     */
+    public int getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+}
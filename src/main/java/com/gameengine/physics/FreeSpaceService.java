@@ -0,0 +1,66 @@
+package com.gameengine.physics;
+
+import com.gameengine.core.GameObject;
+
+import java.util.Random;
+
+/**
+ * 空闲位置查询服务：基于 CollisionSystem 的本帧快照维护一张粗粒度占用网格，
+ * 同一帧内首次查询时栅格化一次（O(碰撞体数)），之后每次查询只遍历格子，耗时有上界。
+ * 坐标为碰撞体中心，返回点保证落在构造时给出的范围内。
+ */
+public class FreeSpaceService {
+    private final CollisionSystem collisions;
+    private final OccupancyGrid grid;
+
+    private int builtFrame = -1;
+    private int builtLayer;
+    private int builtMask;
+    private float builtClearance;
+    private GameObject builtIgnore;
+
+    /**
+     * @param cellSize 网格边长，越小越贴近障碍边缘，越大查询越快
+     */
+    public FreeSpaceService(CollisionSystem collisions, float minX, float minY, float maxX, float maxY,
+                            float cellSize) {
+        this.collisions = collisions;
+        this.grid = new OccupancyGrid(minX, minY, maxX - minX, maxY - minY, cellSize);
+    }
+
+    /**
+     * 离 (x, y) 最近的、半径为 radius 的圆不与可碰撞对象重叠的位置
+     */
+    public boolean findNearest(float x, float y, float radius, int layer, int mask, GameObject ignore,
+                               float[] out) {
+        ensureBuilt(radius, layer, mask, ignore);
+        return grid.findNearestFree(x, y, out);
+    }
+
+    /**
+     * 在所有安全位置中均匀随机取一点
+     */
+    public boolean findRandom(Random random, float radius, int layer, int mask, GameObject ignore,
+                              float[] out) {
+        ensureBuilt(radius, layer, mask, ignore);
+        return grid.pickRandomFree(random, out);
+    }
+
+    private void ensureBuilt(float radius, int layer, int mask, GameObject ignore) {
+        if (builtFrame == collisions.getFrame() && builtLayer == layer && builtMask == mask
+                && builtClearance == radius && builtIgnore == ignore) {
+            return;
+        }
+        grid.clear();
+        collisions.rasterize(grid, layer, mask, ignore, radius);
+        builtFrame = collisions.getFrame();
+        builtLayer = layer;
+        builtMask = mask;
+        builtClearance = radius;
+        builtIgnore = ignore;
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,181 @@
+package com.gameengine.physics;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 粗粒度占用网格：只要格子矩形与某个障碍（已按查询半径膨胀）相交就标记为占用，
+ * 因此空闲格子内的任意一点都是安全位置。查询只遍历格子，耗时与障碍数量无关。
+ */
+public class OccupancyGrid {
+    private final float originX;
+    private final float originY;
+    private final float width;
+    private final float height;
+    private final float cellSize;
+    private final float invCellSize;
+    private final int cols;
+    private final int rows;
+    private final boolean[] blocked;
+    private int freeCount;
+
+    /**
+     * 覆盖 [originX, originX + width] x [originY, originY + height] 的网格
+     */
+    public OccupancyGrid(float originX, float originY, float width, float height, float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+        this.originX = originX;
+        this.originY = originY;
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.blocked = new boolean[cols * rows];
+        this.freeCount = blocked.length;
+    }
+
+    /**
+     * 清空所有标记
+     */
+    public void clear() {
+        Arrays.fill(blocked, false);
+        freeCount = blocked.length;
+    }
+
+    /**
+     * 标记与圆相交的格子
+     */
+    public void markCircle(float x, float y, float r) {
+        int minCx = clampX(x - r), maxCx = clampX(x + r);
+        int minCy = clampY(y - r), maxCy = clampY(y + r);
+        float r2 = r * r;
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            float top = originY + cy * cellSize;
+            float dy = y < top ? top - y : Math.max(0, y - (top + cellSize));
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                float left = originX + cx * cellSize;
+                float dx = x < left ? left - x : Math.max(0, x - (left + cellSize));
+                // 圆心到格子矩形的最近距离小于半径即相交
+                if (dx * dx + dy * dy < r2) mark(cy * cols + cx);
+            }
+        }
+    }
+
+    /**
+     * 标记与矩形相交的格子
+     */
+    public void markRect(float minX, float minY, float maxX, float maxY) {
+        if (maxX < originX || maxY < originY || minX > originX + width || minY > originY + height) return;
+        int minCx = clampX(minX), maxCx = clampX(maxX);
+        int minCy = clampY(minY), maxCy = clampY(maxY);
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                mark(cy * cols + cx);
+            }
+        }
+    }
+
+    private void mark(int cell) {
+        if (!blocked[cell]) {
+            blocked[cell] = true;
+            freeCount--;
+        }
+    }
+
+    /**
+     * 点所在格子是否空闲（网格外视为占用）
+     */
+    public boolean isFree(float x, float y) {
+        if (x < originX || y < originY || x > originX + width || y > originY + height) return false;
+        return !blocked[clampY(y) * cols + clampX(x)];
+    }
+
+    /**
+     * 查找离 (x, y) 最近的空闲位置，按方环由近到远搜索，找到后写入 out 并返回 true
+     */
+    public boolean findNearestFree(float x, float y, float[] out) {
+        if (freeCount == 0) return false;
+        int qx = clampX(x), qy = clampY(y);
+        int maxRing = Math.max(Math.max(qx, cols - 1 - qx), Math.max(qy, rows - 1 - qy));
+        float bestD2 = Float.MAX_VALUE;
+        float bestX = 0, bestY = 0;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // 第 ring 圈上的点离查询点至少 (ring - 1) 个格子，已有结果更近时停止
+            float minDist = (ring - 1) * cellSize;
+            if (minDist > 0 && minDist * minDist > bestD2) break;
+            for (int cy = qy - ring; cy <= qy + ring; cy++) {
+                if (cy < 0 || cy >= rows) continue;
+                boolean edgeRow = cy == qy - ring || cy == qy + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int cx = qx - ring; cx <= qx + ring; cx += Math.max(1, step)) {
+                    if (cx < 0 || cx >= cols || blocked[cy * cols + cx]) continue;
+                    // 取格子（裁剪到网格范围）内离查询点最近的点
+                    float left = originX + cx * cellSize, top = originY + cy * cellSize;
+                    float px = clamp(x, left, Math.min(left + cellSize, originX + width));
+                    float py = clamp(y, top, Math.min(top + cellSize, originY + height));
+                    float dx = px - x, dy = py - y;
+                    float d2 = dx * dx + dy * dy;
+                    if (d2 < bestD2) {
+                        bestD2 = d2;
+                        bestX = px;
+                        bestY = py;
+                    }
+                }
+            }
+        }
+        if (bestD2 == Float.MAX_VALUE) return false;
+        out[0] = bestX;
+        out[1] = bestY;
+        return true;
+    }
+
+    /**
+     * 在空闲区域中均匀随机取一点，没有空闲格子时返回 false
+     */
+    public boolean pickRandomFree(Random random, float[] out) {
+        if (freeCount == 0) return false;
+        int target = random.nextInt(freeCount);
+        for (int cell = 0; cell < blocked.length; cell++) {
+            if (blocked[cell]) continue;
+            if (target-- > 0) continue;
+            float left = originX + (cell % cols) * cellSize;
+            float top = originY + (cell / cols) * cellSize;
+            out[0] = Math.min(left + random.nextFloat() * cellSize, originX + width);
+            out[1] = Math.min(top + random.nextFloat() * cellSize, originY + height);
+            return true;
+        }
+        return false;
+    }
+
+    private int clampX(float x) {
+        int cx = (int) Math.floor((x - originX) * invCellSize);
+        return cx < 0 ? 0 : (cx >= cols ? cols - 1 : cx);
+    }
+
+    private int clampY(float y) {
+        int cy = (int) Math.floor((y - originY) * invCellSize);
+        return cy < 0 ? 0 : (cy >= rows ? rows - 1 : cy);
+    }
+
+    private static float clamp(float v, float lo, float hi) {
+        return v < lo ? lo : (v > hi ? hi : v);
+    }
+
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+}
@@ -0,0 +1,116 @@
+package com.gameengine.physics;
+
+/**
+ * 并行粒度自动调优：按实体数量的 log2 分桶，记录串行与各候选切块大小的每实体耗时（指数滑动平均），
+ * 每帧选择当前桶中最快的方案，并定期轮流试探其他方案以跟上负载变化。
+ * 由此得到本机的串行/并行分界点与并行切块大小，替代写死的阈值。
+ */
+public class ParallelTuner {
+    /** 串行方案 */
+    public static final int SERIAL = 0;
+
+    private static final int[] GRAINS = {16, 32, 64, 128, 256, 512, 1024};
+    private static final int BUCKETS = 24;
+    private static final int EXPLORE_INTERVAL = 30;
+    private static final double ALPHA = 0.2;
+
+    // cost[bucket][0] 为串行，cost[bucket][k] 为第 k-1 个切块大小；NaN 表示尚未测量
+    private final double[][] cost = new double[BUCKETS][GRAINS.length + 1];
+    private final int[] exploreCursor = new int[BUCKETS];
+    private long frame;
+
+    public ParallelTuner() {
+        for (double[] row : cost) {
+            java.util.Arrays.fill(row, Double.NaN);
+        }
+    }
+
+    /**
+     * 为 n 个实体选择方案：返回 SERIAL 表示串行，否则为并行切块大小
+     */
+    public int choose(int n) {
+        frame++;
+        double[] row = cost[bucket(n)];
+        // 先把每个方案都测一遍
+        for (int k = 0; k < row.length; k++) {
+            if (Double.isNaN(row[k]) && applicable(k, n)) return option(k);
+        }
+        // 定期轮流试探非最优方案
+        if (frame % EXPLORE_INTERVAL == 0) {
+            int b = bucket(n);
+            for (int tries = 0; tries < row.length; tries++) {
+                int k = exploreCursor[b]++ % row.length;
+                if (applicable(k, n)) return option(k);
+            }
+        }
+        return option(best(row, n));
+    }
+
+    /**
+     * 记录一次执行耗时
+     */
+    public void record(int n, int choice, long nanos) {
+        if (n <= 0) return;
+        double[] row = cost[bucket(n)];
+        int k = index(choice);
+        double perEntity = (double) nanos / n;
+        row[k] = Double.isNaN(row[k]) ? perEntity : row[k] + ALPHA * (perEntity - row[k]);
+    }
+
+    /**
+     * 当前估计的并行分界点：最小的、并行已测得比串行快的桶对应的实体数；尚无结论时返回 -1
+     */
+    public int getEstimatedCutoff() {
+        for (int b = 0; b < BUCKETS; b++) {
+            double[] row = cost[b];
+            if (Double.isNaN(row[0])) continue;
+            int k = best(row, Integer.MAX_VALUE);
+            if (k != 0) return 1 << b;
+        }
+        return -1;
+    }
+
+    /**
+     * 当前对 n 个实体的最优方案（不触发试探）
+     */
+    public int getBestChoice(int n) {
+        return option(best(cost[bucket(n)], n));
+    }
+
+    private int best(double[] row, int n) {
+        int bestK = 0;
+        double bestCost = Double.MAX_VALUE;
+        for (int k = 0; k < row.length; k++) {
+            if (Double.isNaN(row[k]) || !applicable(k, n)) continue;
+            if (row[k] < bestCost) {
+                bestCost = row[k];
+                bestK = k;
+            }
+        }
+        return bestK;
+    }
+
+    /**
+     * 切块大小不小于实体数时并行没有意义
+     */
+    private static boolean applicable(int k, int n) {
+        return k == 0 || GRAINS[k - 1] < n;
+    }
+
+    private static int option(int k) {
+        return k == 0 ? SERIAL : GRAINS[k - 1];
+    }
+
+    private static int index(int choice) {
+        if (choice == SERIAL) return 0;
+        for (int k = 0; k < GRAINS.length; k++) {
+            if (GRAINS[k] == choice) return k + 1;
+        }
+        throw new IllegalArgumentException("unknown grain " + choice);
+    }
+
+    private static int bucket(int n) {
+        int b = 31 - Integer.numberOfLeadingZeros(Math.max(1, n));
+        return Math.min(b, BUCKETS - 1);
+    }
+}
@@ -0,0 +1,271 @@
+package com.gameengine.physics;
+
+import com.gameengine.components.PhysicsComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+import com.gameengine.math.FloatKernels;
+import com.gameengine.scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 物理系统：把所有 PhysicsComponent 的状态打包进扁平数组，在一次紧凑循环中完成
+ * 重力、加速度、摩擦力与位置积分，物体较多时按批分发到线程池。
+ * 物体列表只在场景结构变化时重建，每帧不做组件查找也不分配 Vector2。
+ * 设置了边界时，积分后在打包数组上统一做边界反弹与夹紧。
+ * 开启子步后，只有本帧位移超过 maxTravel 的快速物体按固定子步长分多步积分并逐步处理边界，
+ * 其余物体仍只积分一次，低帧率下快速物体不会穿透边界。
+ */
+public class PhysicsSystem {
+    private static final int MAX_SUBSTEPS = 8;
+
+    private final ExecutorService executor;
+    private final int threadCount;
+    private final int parallelThreshold;
+    private final FloatKernels kernels;
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    private PhysicsComponent[] bodies = new PhysicsComponent[64];
+    private TransformComponent[] transforms = new TransformComponent[64];
+    private int count;
+    private int cachedVersion = -1;
+    private Scene cachedScene;
+
+    // 打包的物体状态
+    private float[] px = new float[64];
+    private float[] py = new float[64];
+    private float[] vx = new float[64];
+    private float[] vy = new float[64];
+    private float[] ax = new float[64];
+    private float[] ay = new float[64];
+    private float[] friction = new float[64];
+    private boolean[] substepped = new boolean[64];
+
+    private boolean bounded;
+    private float substep;
+    private float maxTravel;
+    private int lastSubsteppedBodies;
+    private float boundMinX, boundMinY, boundMaxX, boundMaxY;
+
+    /**
+     * @param executor 并行积分用的线程池，为 null 时始终串行
+     * @param threadCount 并行时的分批数
+     * @param parallelThreshold 物体数达到该值时并行积分
+     * @param kernels 边界处理使用的计算内核
+     */
+    public PhysicsSystem(ExecutorService executor, int threadCount, int parallelThreshold, FloatKernels kernels) {
+        this.executor = executor;
+        this.threadCount = Math.max(1, threadCount);
+        this.parallelThreshold = parallelThreshold;
+        this.kernels = kernels;
+    }
+
+    /**
+     * 设置物体位置的边界，碰到边界时对应轴速度反向
+     */
+    public void setBounds(float minX, float minY, float maxX, float maxY) {
+        this.bounded = true;
+        this.boundMinX = minX;
+        this.boundMinY = minY;
+        this.boundMaxX = maxX;
+        this.boundMaxY = maxY;
+    }
+
+    /**
+     * 开启子步积分
+     * @param substep 子步长（秒），不大于 0 时关闭子步
+     * @param maxTravel 单步位移超过该距离（像素）的物体才分子步
+     */
+    public void setSubstepping(float substep, float maxTravel) {
+        this.substep = substep;
+        this.maxTravel = maxTravel;
+    }
+
+    /**
+     * 取消边界处理
+     */
+    public void clearBounds() {
+        this.bounded = false;
+    }
+
+    /**
+     * 积分场景中所有启用的物理物体
+     */
+    public void update(Scene scene, float deltaTime) {
+        if (scene != cachedScene || scene.getStructureVersion() != cachedVersion) {
+            rebuildBodies(scene);
+        }
+        if (count == 0) return;
+
+        gather();
+        if (executor != null && count >= parallelThreshold) {
+            integrateParallel(deltaTime);
+        } else {
+            integrate(0, count, deltaTime);
+        }
+        scatter();
+    }
+
+    private void rebuildBodies(Scene scene) {
+        List<GameObject> objects = scene.getGameObjectsView();
+        ensureCapacity(objects.size());
+        int previousCount = count;
+        count = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject obj = objects.get(i);
+            PhysicsComponent physics = obj.getComponent(PhysicsComponent.class);
+            if (physics == null) continue;
+            TransformComponent transform = obj.getComponent(TransformComponent.class);
+            if (transform == null) continue;
+            bodies[count] = physics;
+            transforms[count] = transform;
+            count++;
+        }
+        for (int i = count; i < previousCount; i++) {
+            bodies[i] = null;
+            transforms[i] = null;
+        }
+        cachedScene = scene;
+        cachedVersion = scene.getStructureVersion();
+    }
+
+    private void ensureCapacity(int n) {
+        if (bodies.length >= n) return;
+        int cap = Math.max(n, bodies.length * 2);
+        bodies = new PhysicsComponent[cap];
+        transforms = new TransformComponent[cap];
+        px = new float[cap];
+        py = new float[cap];
+        vx = new float[cap];
+        vy = new float[cap];
+        ax = new float[cap];
+        ay = new float[cap];
+        friction = new float[cap];
+        substepped = new boolean[cap];
+    }
+
+    /**
+     * 从组件读取状态到打包数组，重力在此并入加速度；禁用的物体摩擦记为 -1 表示跳过
+     */
+    private void gather() {
+        for (int i = 0; i < count; i++) {
+            PhysicsComponent body = bodies[i];
+            TransformComponent transform = transforms[i];
+            px[i] = transform.getX();
+            py[i] = transform.getY();
+            vx[i] = body.getVelocityX();
+            vy[i] = body.getVelocityY();
+            float accX = body.getAccelerationX();
+            float accY = body.getAccelerationY();
+            if (body.isUseGravity()) {
+                accX += body.getGravityX();
+                accY += body.getGravityY();
+            }
+            substepped[i] = false;
+            ax[i] = accX;
+            ay[i] = accY;
+            boolean active = body.isEnabled() && body.getOwner() != null && body.getOwner().isActive();
+            friction[i] = active ? body.getFriction() : -1f;
+        }
+    }
+
+    private void integrate(int start, int end, float dt) {
+        float travel2 = maxTravel * maxTravel;
+        for (int i = start; i < end; i++) {
+            float f = friction[i];
+            if (f < 0) continue;
+            if (substep > 0 && dt > substep) {
+                float tx = (Math.abs(vx[i]) + Math.abs(ax[i]) * dt) * dt;
+                float ty = (Math.abs(vy[i]) + Math.abs(ay[i]) * dt) * dt;
+                if (tx * tx + ty * ty > travel2) {
+                    integrateSubsteps(i, dt, f);
+                    continue;
+                }
+            }
+            float nvx = (vx[i] + ax[i] * dt) * f;
+            float nvy = (vy[i] + ay[i] * dt) * f;
+            vx[i] = nvx;
+            vy[i] = nvy;
+            px[i] += nvx * dt;
+            py[i] += nvy * dt;
+        }
+        if (bounded) {
+            kernels.bounceInBounds(px, py, vx, vy, start, end, boundMinX, boundMinY, boundMaxX, boundMaxY);
+        }
+    }
+
+    /**
+     * 把第 i 个物体的一帧拆成若干固定子步积分，摩擦按子步数开方分摊。
+     * 前面各子步就地做边界反弹，最后一步的边界处理留给统一的边界内核，避免重复反向。
+     */
+    private void integrateSubsteps(int i, float dt, float f) {
+        int steps = Math.min(MAX_SUBSTEPS, (int) Math.ceil(dt / substep));
+        float h = dt / steps;
+        float fs = f == 1f ? 1f : (float) Math.pow(f, 1.0 / steps);
+        float x = px[i], y = py[i], vxi = vx[i], vyi = vy[i];
+        for (int k = 0; k < steps; k++) {
+            vxi = (vxi + ax[i] * h) * fs;
+            vyi = (vyi + ay[i] * h) * fs;
+            x += vxi * h;
+            y += vyi * h;
+            if (bounded && k < steps - 1) {
+                if (x <= boundMinX || x >= boundMaxX) vxi = -vxi;
+                if (y <= boundMinY || y >= boundMaxY) vyi = -vyi;
+                x = Math.min(Math.max(x, boundMinX), boundMaxX);
+                y = Math.min(Math.max(y, boundMinY), boundMaxY);
+            }
+        }
+        px[i] = x;
+        py[i] = y;
+        vx[i] = vxi;
+        vy[i] = vyi;
+        substepped[i] = true;
+    }
+
+    private void integrateParallel(float dt) {
+        int batchSize = (count + threadCount - 1) / threadCount;
+        futures.clear();
+        for (int start = 0; start < count; start += batchSize) {
+            final int s = start;
+            final int e = Math.min(start + batchSize, count);
+            futures.add(executor.submit(() -> integrate(s, e, dt)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void scatter() {
+        int fast = 0;
+        for (int i = 0; i < count; i++) {
+            if (friction[i] < 0) continue;
+            if (substepped[i]) fast++;
+            transforms[i].setPosition(px[i], py[i]);
+            PhysicsComponent body = bodies[i];
+            body.setVelocity(vx[i], vy[i]);
+            body.clearAcceleration();
+        }
+        lastSubsteppedBodies = fast;
+    }
+
+    /**
+     * 当前参与积分的物体数量
+     */
+    public int getBodyCount() {
+        return count;
+    }
+
+    /**
+     * 上一帧按子步积分的物体数量
+     */
+    public int getLastSubsteppedBodies() {
+        return lastSubsteppedBodies;
+    }
+}
@@ -0,0 +1,136 @@
+package com.gameengine.physics;
+
+/**
+ * 均匀网格空间哈希，用扁平 int 数组存储（计数排序），每帧按位置快照重建。
+ * 超出世界范围的点被夹到边缘格子，查询时仍需做精确的距离判断。
+ * 重建时同时按格子顺序写出坐标副本，同一行相邻格子的数据是连续的，便于向量化扫描。
+ */
+public class SpatialHashGrid {
+    private final float cellSize;
+    private final float invCellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellStart;
+    private int[] items;
+    private int[] itemCell;
+    private float[] sortedX;
+    private float[] sortedY;
+    private int count;
+
+    public SpatialHashGrid(float worldWidth, float worldHeight, float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("cellSize must be positive");
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0f / cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(worldWidth / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+        this.items = new int[64];
+        this.itemCell = new int[64];
+        this.sortedX = new float[64];
+        this.sortedY = new float[64];
+    }
+
+    /**
+     * 用前 n 个位置重建网格，元素编号即数组下标
+     */
+    public void build(float[] xs, float[] ys, int n) {
+        if (items.length < n) {
+            int cap = Math.max(n, items.length * 2);
+            items = new int[cap];
+            itemCell = new int[cap];
+            sortedX = new float[cap];
+            sortedY = new float[cap];
+        }
+        count = n;
+        java.util.Arrays.fill(cellStart, 0);
+        for (int i = 0; i < n; i++) {
+            int cell = cellIndex(cellX(xs[i]), cellY(ys[i]));
+            itemCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        // 逐格写入位置，借用 cellStart 作为游标后再恢复
+        for (int i = 0; i < n; i++) {
+            int cell = itemCell[i];
+            int k = cellStart[cell]++;
+            items[k] = i;
+            sortedX[k] = xs[i];
+            sortedY[k] = ys[i];
+        }
+        for (int c = cols * rows; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    public int cellX(float x) {
+        int cx = (int) Math.floor(x * invCellSize);
+        return cx < 0 ? 0 : (cx >= cols ? cols - 1 : cx);
+    }
+
+    public int cellY(float y) {
+        int cy = (int) Math.floor(y * invCellSize);
+        return cy < 0 ? 0 : (cy >= rows ? rows - 1 : cy);
+    }
+
+    public int cellIndex(int cx, int cy) {
+        return cy * cols + cx;
+    }
+
+    /**
+     * 指定格子在 item 数组中的起始下标
+     */
+    public int cellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    /**
+     * 指定格子在 item 数组中的结束下标（不含）
+     */
+    public int cellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    public int item(int k) {
+        return items[k];
+    }
+
+    /**
+     * 按格子顺序排列的元素编号（内部数组，只读）
+     */
+    public int[] getItems() {
+        return items;
+    }
+
+    /**
+     * 按格子顺序排列的 x 坐标（内部数组，只读）
+     */
+    public float[] getSortedX() {
+        return sortedX;
+    }
+
+    /**
+     * 按格子顺序排列的 y 坐标（内部数组，只读）
+     */
+    public float[] getSortedY() {
+        return sortedY;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int size() {
+        return count;
+    }
+}
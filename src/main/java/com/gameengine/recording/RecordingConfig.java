@@ -1,15 +1,22 @@
 package com.gameengine.recording;
 
+import com.gameengine.config.GameConfig;
+import com.gameengine.config.PerformanceProfile;
+
 public class RecordingConfig {
     public String outputPath;
-    public float keyframeIntervalSec = 0.5f;
-    public int sampleFps = 30;
+    public float keyframeIntervalSec;
+    public int sampleFps;
     public float positionThreshold = 0.5f; // pixels
     public int quantizeDecimals = 2;
-    public int queueCapacity = 2048;
+    public int queueCapacity;
 
     public RecordingConfig(String outputPath) {
         this.outputPath = outputPath;
+        PerformanceProfile profile = GameConfig.getProfile();
+        this.keyframeIntervalSec = profile.getKeyframeIntervalSec();
+        this.sampleFps = profile.getRecordingSampleFps();
+        this.queueCapacity = profile.getRecordingQueueCapacity();
     }
 }
 
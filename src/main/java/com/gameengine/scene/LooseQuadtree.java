@@ -0,0 +1,355 @@
+package com.gameengine.scene;
+
+import com.gameengine.components.ColliderComponent;
+import com.gameengine.components.TransformComponent;
+import com.gameengine.core.GameObject;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 松散四叉树（松散系数 2）：每个节点的松散边界是格子向四周各扩半个格子，
+ * 对象按自身尺寸直接选层（能容纳它的最深层），再按中心所在格子选节点，插入与移动都是 O(1)，
+ * 大小悬殊的对象不会堆积在根节点。超出世界范围的对象放在根节点（根节点的边界视为无限）。
+ * 对象的包围盒取碰撞体，没有碰撞体时按变换位置视为一个点。
+ * 节点内对象用 int 数组串成双向链表，每个节点维护子树对象数用于剪枝，查询结果写入调用方缓冲区。
+ */
+public class LooseQuadtree {
+    private final float worldWidth;
+    private final float worldHeight;
+    private final int maxDepth;
+    private final int[] levelOffset;
+    private final int[] head;
+    private final int[] subtreeCount;
+
+    // 条目数据（结构数组），下标为条目编号
+    private GameObject[] objects = new GameObject[64];
+    private TransformComponent[] transforms = new TransformComponent[64];
+    private ColliderComponent[] colliders = new ColliderComponent[64];
+    private float[] minX = new float[64];
+    private float[] minY = new float[64];
+    private float[] maxX = new float[64];
+    private float[] maxY = new float[64];
+    private boolean[] circle = new boolean[64];
+    private int[] node = new int[64];
+    private int[] next = new int[64];
+    private int[] prev = new int[64];
+    private int[] freeList = new int[64];
+    private int freeCount;
+    private int capacity;
+    private int size;
+    private final Map<GameObject, Integer> entryOf = new IdentityHashMap<>();
+
+    // nearest 查询的暂存（按距离升序）
+    private float[] bestDist = new float[16];
+    private int bestCount;
+    private int bestK;
+
+    public LooseQuadtree(float worldWidth, float worldHeight, int maxDepth) {
+        if (maxDepth < 0 || maxDepth > 10) throw new IllegalArgumentException("maxDepth must be in [0, 10]");
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.maxDepth = maxDepth;
+        this.levelOffset = new int[maxDepth + 2];
+        for (int l = 1; l <= maxDepth + 1; l++) {
+            levelOffset[l] = levelOffset[l - 1] + (1 << (2 * (l - 1)));
+        }
+        this.head = new int[levelOffset[maxDepth + 1]];
+        this.subtreeCount = new int[head.length];
+        Arrays.fill(head, -1);
+    }
+
+    /**
+     * 加入对象，没有变换组件或已在树中时忽略
+     */
+    public void insert(GameObject obj) {
+        if (entryOf.containsKey(obj)) return;
+        TransformComponent transform = obj.getComponent(TransformComponent.class);
+        if (transform == null) return;
+        int e = allocate();
+        objects[e] = obj;
+        transforms[e] = transform;
+        colliders[e] = obj.getComponent(ColliderComponent.class);
+        readBounds(e);
+        link(e, nodeFor(e));
+        entryOf.put(obj, e);
+        size++;
+    }
+
+    /**
+     * 移除对象，不在树中时忽略
+     */
+    public void remove(GameObject obj) {
+        Integer boxed = entryOf.remove(obj);
+        if (boxed == null) return;
+        int e = boxed;
+        unlink(e);
+        objects[e] = null;
+        transforms[e] = null;
+        colliders[e] = null;
+        freeList[freeCount++] = e;
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(head, -1);
+        Arrays.fill(subtreeCount, 0);
+        Arrays.fill(objects, 0, capacity, null);
+        Arrays.fill(transforms, 0, capacity, null);
+        Arrays.fill(colliders, 0, capacity, null);
+        entryOf.clear();
+        capacity = 0;
+        freeCount = 0;
+        size = 0;
+    }
+
+    /**
+     * 重新读取所有对象的位置，只有离开所在节点的对象才会重新挂接
+     */
+    public void refresh() {
+        for (int e = 0; e < capacity; e++) {
+            if (objects[e] == null) continue;
+            readBounds(e);
+            int target = nodeFor(e);
+            if (target != node[e]) {
+                unlink(e);
+                link(e, target);
+            }
+        }
+    }
+
+    /**
+     * 查询包围盒与以 (x, y) 为圆心、半径 r 的圆相交的对象，结果写入 out，返回写入数量
+     */
+    public int queryRadius(float x, float y, float r, GameObject[] out) {
+        return queryRadius(0, 0, 0, x, y, r, out, 0);
+    }
+
+    /**
+     * 查询包围盒与矩形相交的对象，结果写入 out，返回写入数量
+     */
+    public int queryRect(float qMinX, float qMinY, float qMaxX, float qMaxY, GameObject[] out) {
+        return queryRect(0, 0, 0, qMinX, qMinY, qMaxX, qMaxY, out, 0);
+    }
+
+    /**
+     * 查询离 (x, y) 最近的至多 k 个对象（按到包围盒的距离升序），结果写入 out，返回写入数量
+     */
+    public int nearest(float x, float y, int k, GameObject[] out) {
+        k = Math.min(k, out.length);
+        if (k <= 0 || size == 0) return 0;
+        if (bestDist.length < k) bestDist = new float[Math.max(k, bestDist.length * 2)];
+        bestCount = 0;
+        bestK = k;
+        nearest(0, 0, 0, x, y, out);
+        return bestCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int queryRadius(int level, int cx, int cy, float x, float y, float r, GameObject[] out, int n) {
+        int nd = levelOffset[level] + (cy << level) + cx;
+        if (subtreeCount[nd] == 0 || n >= out.length) return n;
+        if (level > 0 && looseDistSq(level, cx, cy, x, y) > r * r) return n;
+        for (int e = head[nd]; e >= 0 && n < out.length; e = next[e]) {
+            if (distSq(e, x, y) <= r * r) out[n++] = objects[e];
+        }
+        if (level < maxDepth) {
+            for (int c = 0; c < 4; c++) {
+                n = queryRadius(level + 1, 2 * cx + (c & 1), 2 * cy + (c >> 1), x, y, r, out, n);
+            }
+        }
+        return n;
+    }
+
+    private int queryRect(int level, int cx, int cy, float qMinX, float qMinY, float qMaxX, float qMaxY,
+                          GameObject[] out, int n) {
+        int nd = levelOffset[level] + (cy << level) + cx;
+        if (subtreeCount[nd] == 0 || n >= out.length) return n;
+        if (level > 0) {
+            float cw = worldWidth / (1 << level), ch = worldHeight / (1 << level);
+            float lx = cx * cw - cw / 2, ly = cy * ch - ch / 2;
+            if (lx > qMaxX || ly > qMaxY || lx + 2 * cw < qMinX || ly + 2 * ch < qMinY) return n;
+        }
+        for (int e = head[nd]; e >= 0 && n < out.length; e = next[e]) {
+            if (minX[e] <= qMaxX && maxX[e] >= qMinX && minY[e] <= qMaxY && maxY[e] >= qMinY) {
+                out[n++] = objects[e];
+            }
+        }
+        if (level < maxDepth) {
+            for (int c = 0; c < 4; c++) {
+                n = queryRect(level + 1, 2 * cx + (c & 1), 2 * cy + (c >> 1), qMinX, qMinY, qMaxX, qMaxY, out, n);
+            }
+        }
+        return n;
+    }
+
+    private void nearest(int level, int cx, int cy, float x, float y, GameObject[] out) {
+        int nd = levelOffset[level] + (cy << level) + cx;
+        if (subtreeCount[nd] == 0) return;
+        if (level > 0 && bestCount == bestK && looseDistSq(level, cx, cy, x, y) > bestDist[bestCount - 1]) return;
+        for (int e = head[nd]; e >= 0; e = next[e]) {
+            float d = distSq(e, x, y);
+            if (bestCount == bestK && d >= bestDist[bestCount - 1]) continue;
+            // 插入排序维护前 k 个
+            int i = bestCount < bestK ? bestCount++ : bestCount - 1;
+            while (i > 0 && bestDist[i - 1] > d) {
+                bestDist[i] = bestDist[i - 1];
+                out[i] = out[i - 1];
+                i--;
+            }
+            bestDist[i] = d;
+            out[i] = objects[e];
+        }
+        if (level < maxDepth) {
+            // 先访问查询点所在的子格子，尽早收紧剪枝半径
+            int first = childContaining(level + 1, cx, cy, x, y);
+            for (int c = 0; c < 4; c++) {
+                int child = c ^ first;
+                nearest(level + 1, 2 * cx + (child & 1), 2 * cy + (child >> 1), x, y, out);
+            }
+        }
+    }
+
+    private int childContaining(int childLevel, int cx, int cy, float x, float y) {
+        float cw = worldWidth / (1 << childLevel), ch = worldHeight / (1 << childLevel);
+        int bx = x >= (2 * cx + 1) * cw ? 1 : 0;
+        int by = y >= (2 * cy + 1) * ch ? 1 : 0;
+        return bx | (by << 1);
+    }
+
+    /**
+     * 点到节点松散边界的距离平方
+     */
+    private float looseDistSq(int level, int cx, int cy, float x, float y) {
+        float cw = worldWidth / (1 << level), ch = worldHeight / (1 << level);
+        float lx = cx * cw - cw / 2, ly = cy * ch - ch / 2;
+        float dx = x < lx ? lx - x : Math.max(0, x - (lx + 2 * cw));
+        float dy = y < ly ? ly - y : Math.max(0, y - (ly + 2 * ch));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * 点到条目包围形状的距离平方（圆按圆计算，其余按矩形）
+     */
+    private float distSq(int e, float x, float y) {
+        if (circle[e]) {
+            float r = (maxX[e] - minX[e]) / 2;
+            float dx = minX[e] + r - x, dy = minY[e] + r - y;
+            float d = (float) Math.sqrt(dx * dx + dy * dy) - r;
+            return d > 0 ? d * d : 0;
+        }
+        float dx = x < minX[e] ? minX[e] - x : Math.max(0, x - maxX[e]);
+        float dy = y < minY[e] ? minY[e] - y : Math.max(0, y - maxY[e]);
+        return dx * dx + dy * dy;
+    }
+
+    private void readBounds(int e) {
+        TransformComponent transform = transforms[e];
+        ColliderComponent collider = colliders[e];
+        float x = transform.getX(), y = transform.getY();
+        if (collider == null) {
+            circle[e] = false;
+            minX[e] = maxX[e] = x;
+            minY[e] = maxY[e] = y;
+        } else if (collider.getShape() == ColliderComponent.Shape.CIRCLE) {
+            float r = collider.getSizeX() / 2;
+            float cx = x + collider.getOffsetX(), cy = y + collider.getOffsetY();
+            circle[e] = true;
+            minX[e] = cx - r;
+            minY[e] = cy - r;
+            maxX[e] = cx + r;
+            maxY[e] = cy + r;
+        } else {
+            circle[e] = false;
+            minX[e] = x + collider.getOffsetX();
+            minY[e] = y + collider.getOffsetY();
+            maxX[e] = minX[e] + collider.getSizeX();
+            maxY[e] = minY[e] + collider.getSizeY();
+        }
+    }
+
+    /**
+     * 能容纳条目的最深层中、中心所在的节点；中心在世界外或坐标非法时返回根节点
+     */
+    private int nodeFor(int e) {
+        float hx = (maxX[e] - minX[e]) / 2, hy = (maxY[e] - minY[e]) / 2;
+        float x = minX[e] + hx, y = minY[e] + hy;
+        if (!(x >= 0 && x < worldWidth && y >= 0 && y < worldHeight)) return 0;
+        int level = 0;
+        // 松散系数 2：半尺寸不超过半个格子时，中心在格子内即可被松散边界包住
+        while (level < maxDepth) {
+            float cw = worldWidth / (1 << (level + 1)), ch = worldHeight / (1 << (level + 1));
+            if (hx > cw / 2 || hy > ch / 2) break;
+            level++;
+        }
+        int cells = 1 << level;
+        int cx = Math.min(cells - 1, (int) (x / worldWidth * cells));
+        int cy = Math.min(cells - 1, (int) (y / worldHeight * cells));
+        return levelOffset[level] + (cy << level) + cx;
+    }
+
+    private void link(int e, int nd) {
+        node[e] = nd;
+        prev[e] = -1;
+        next[e] = head[nd];
+        if (head[nd] >= 0) prev[head[nd]] = e;
+        head[nd] = e;
+        adjustCounts(nd, 1);
+    }
+
+    private void unlink(int e) {
+        int nd = node[e];
+        if (prev[e] >= 0) next[prev[e]] = next[e];
+        else head[nd] = next[e];
+        if (next[e] >= 0) prev[next[e]] = prev[e];
+        adjustCounts(nd, -1);
+    }
+
+    /**
+     * 沿父节点链更新子树计数
+     */
+    private void adjustCounts(int nd, int delta) {
+        int level = levelOf(nd);
+        int local = nd - levelOffset[level];
+        int cx = local & ((1 << level) - 1), cy = local >> level;
+        while (true) {
+            subtreeCount[levelOffset[level] + (cy << level) + cx] += delta;
+            if (level == 0) break;
+            level--;
+            cx >>= 1;
+            cy >>= 1;
+        }
+    }
+
+    private int levelOf(int nd) {
+        int level = 0;
+        while (level < maxDepth && nd >= levelOffset[level + 1]) level++;
+        return level;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) return freeList[--freeCount];
+        if (capacity == objects.length) grow();
+        return capacity++;
+    }
+
+    private void grow() {
+        int cap = objects.length * 2;
+        objects = Arrays.copyOf(objects, cap);
+        transforms = Arrays.copyOf(transforms, cap);
+        colliders = Arrays.copyOf(colliders, cap);
+        minX = Arrays.copyOf(minX, cap);
+        minY = Arrays.copyOf(minY, cap);
+        maxX = Arrays.copyOf(maxX, cap);
+        maxY = Arrays.copyOf(maxY, cap);
+        circle = Arrays.copyOf(circle, cap);
+        node = Arrays.copyOf(node, cap);
+        next = Arrays.copyOf(next, cap);
+        prev = Arrays.copyOf(prev, cap);
+        freeList = Arrays.copyOf(freeList, cap);
+    }
+}
@@ -2,6 +2,7 @@ package com.gameengine.scene;
 
 import com.gameengine.core.GameObject;
 import com.gameengine.core.Component;
+import com.gameengine.config.GameConfig;
 // 移除具体游戏逻辑的import
 import java.util.*;
 import java.util.stream.Collectors;
@@ -15,6 +16,14 @@ public class Scene {
     private List<GameObject> objectsToAdd;
     private List<GameObject> objectsToRemove;
     private boolean initialized;
+    private int structureVersion;
+    private int staticVersion;
+    private final List<GameObject> gameObjectsView;
+    // 空间索引在首次查询时创建，之后随对象增删增量维护
+    private LooseQuadtree spatialIndex;
+    private int updateCount;
+    private int spatialRefreshedAt = -1;
+    private static final int SPATIAL_DEPTH = 6;
     // 移除未使用的组件索引
     
     public Scene(String name) {
@@ -23,6 +32,8 @@ public class Scene {
         this.objectsToAdd = new ArrayList<>();
         this.objectsToRemove = new ArrayList<>();
         this.initialized = false;
+        this.structureVersion = 0;
+        this.gameObjectsView = Collections.unmodifiableList(gameObjects);
         // 移除组件索引初始化
     }
     
@@ -40,18 +51,38 @@ public class Scene {
      * 更新场景
      */
     public void update(float deltaTime) {
+        updateCount++;
+        if (!objectsToAdd.isEmpty() || !objectsToRemove.isEmpty()) {
+            structureVersion++;
+        }
+        
         // 添加新对象
         for (GameObject obj : objectsToAdd) {
             gameObjects.add(obj);
+            if (obj.isStatic()) staticVersion++;
+            if (spatialIndex != null) {
+                spatialIndex.insert(obj);
+            }
             if (initialized) {
                 obj.initialize();
             }
         }
         objectsToAdd.clear();
         
-        // 移除标记的对象
+        // 移除标记的对象：多个时按引用集合一次压缩，避免逐个 remove 的 O(n*k)
         for (GameObject obj : objectsToRemove) {
-            gameObjects.remove(obj);
+            if (obj.getScene() == this) obj.setScene(null);
+            if (obj.isStatic()) staticVersion++;
+            if (spatialIndex != null) {
+                spatialIndex.remove(obj);
+            }
+        }
+        if (objectsToRemove.size() == 1) {
+            gameObjects.remove(objectsToRemove.get(0));
+        } else if (!objectsToRemove.isEmpty()) {
+            Set<GameObject> removing = Collections.newSetFromMap(new IdentityHashMap<>());
+            removing.addAll(objectsToRemove);
+            gameObjects.removeIf(removing::contains);
         }
         objectsToRemove.clear();
         
@@ -63,31 +94,72 @@ public class Scene {
                 obj.update(deltaTime);
             } else {
                 iterator.remove();
+                obj.setScene(null);
+                structureVersion++;
+                if (obj.isStatic()) staticVersion++;
+                if (spatialIndex != null) {
+                    spatialIndex.remove(obj);
+                }
             }
         }
     }
     
     /**
-     * 渲染场景
+     * 渲染场景中的动态对象，静态对象由 renderStatic 绘制
      */
     public void render() {
         for (GameObject obj : gameObjects) {
-            if (obj.isActive()) {
+            if (obj.isActive() && !obj.isStatic()) {
                 obj.render();
             }
         }
     }
+
+    /**
+     * 渲染静态对象，只在静态层需要重建时调用
+     */
+    public void renderStatic() {
+        for (GameObject obj : gameObjects) {
+            if (obj.isActive() && obj.isStatic()) {
+                obj.render();
+            }
+        }
+    }
+
+    /**
+     * 静态内容版本：静态对象增删时递增，与渲染器静态层的版本不同时需要重建
+     */
+    public int getStaticVersion() {
+        return staticVersion;
+    }
+
+    /**
+     * 静态对象的外观或位置被修改后调用，使静态层在下一帧重建
+     */
+    public void markStaticDirty() {
+        staticVersion++;
+    }
     
     /**
      * 添加游戏对象到场景
      */
     public void addGameObject(GameObject gameObject) {
+        gameObject.setScene(this);
         objectsToAdd.add(gameObject);
     }
     
     public void removeGameObject(GameObject gameObject) {
         objectsToRemove.add(gameObject);
     }
+
+    /**
+     * 批量移除 buffer 中前 count 个对象，在下一次 update 时一次性生效
+     */
+    public void removeGameObjects(GameObject[] buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            objectsToRemove.add(buffer[i]);
+        }
+    }
     
     /**
      * 根据组件类型查找游戏对象
@@ -112,9 +184,61 @@ public class Scene {
      * 清空场景
      */
     public void clear() {
+        structureVersion++;
+        staticVersion++;
+        for (GameObject obj : gameObjects) obj.setScene(null);
+        for (GameObject obj : objectsToAdd) obj.setScene(null);
         gameObjects.clear();
         objectsToAdd.clear();
         objectsToRemove.clear();
+        if (spatialIndex != null) {
+            spatialIndex.clear();
+        }
+    }
+
+    /**
+     * 查询包围盒与圆相交的对象（碰撞体为包围盒，没有碰撞体时按位置点），
+     * 结果写入 out，返回写入数量，out 写满即停止
+     */
+    public int queryRadius(float x, float y, float radius, GameObject[] out) {
+        return spatialIndex().queryRadius(x, y, radius, out);
+    }
+
+    /**
+     * 查询包围盒与矩形相交的对象，结果写入 out，返回写入数量
+     */
+    public int queryRect(float minX, float minY, float maxX, float maxY, GameObject[] out) {
+        return spatialIndex().queryRect(minX, minY, maxX, maxY, out);
+    }
+
+    /**
+     * 查询离 (x, y) 最近的至多 k 个对象，按距离升序写入 out，返回写入数量
+     */
+    public int nearest(float x, float y, int k, GameObject[] out) {
+        return spatialIndex().nearest(x, y, k, out);
+    }
+
+    /**
+     * 立即按当前位置更新空间索引。索引每次 update 后首次查询时会自动更新一次，
+     * 同一帧内对象移动后还要查询时调用
+     */
+    public void refreshSpatialIndex() {
+        spatialIndex().refresh();
+        spatialRefreshedAt = updateCount;
+    }
+
+    private LooseQuadtree spatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = new LooseQuadtree(GameConfig.WIDTH, GameConfig.HEIGHT, SPATIAL_DEPTH);
+            for (GameObject obj : gameObjects) {
+                spatialIndex.insert(obj);
+            }
+            spatialRefreshedAt = updateCount;
+        } else if (spatialRefreshedAt != updateCount) {
+            spatialIndex.refresh();
+            spatialRefreshedAt = updateCount;
+        }
+        return spatialIndex;
     }
     
     /**
@@ -131,5 +255,26 @@ public class Scene {
         return new ArrayList<>(gameObjects);
     }
     
+    /**
+     * 获取游戏对象的只读视图（不复制，仅在下一次 update 前有效）
+     */
+    public List<GameObject> getGameObjectsView() {
+        return gameObjectsView;
+    }
+    
+    /**
+     * 结构版本号，对象增删或本场景中的对象增删组件时变化，系统可据此判断是否需要重建缓存
+     */
+    public int getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * 场景中的对象增删组件时由 GameObject 调用
+     */
+    public void markStructureChanged() {
+        structureVersion++;
+    }
+    
     // 移除具体游戏逻辑，让子类实现
 }
\ No newline at end of file